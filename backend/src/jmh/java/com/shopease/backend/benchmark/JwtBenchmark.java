@@ -0,0 +1,92 @@
+package com.shopease.backend.benchmark;
+
+/**
+ * Micro-benchmarks de {@link JwtService} : signature d'un token et extraction des claims.
+ * <p>
+ * L'extraction est mesurée avec le cache des tokens vérifiés désactivé (chaque appel vérifie
+ * la signature HMAC et analyse le token) puis activé (chemin suivi par les requêtes d'un
+ * client déjà vu).
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    /**
+     * Nombre de tokens distincts parcourus, pour que le cache désactivé ne serve jamais de résultat.
+     */
+    private static final int TOKEN_COUNT = 1024;
+
+    private final JwtService jwtService = new JwtService(new SimpleMeterRegistry(), 0);
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("client");
+    }
+
+    @Benchmark
+    public String extractUsername(Verification verification) {
+        return verification.jwtService.extractUsername(verification.nextToken());
+    }
+
+    @Benchmark
+    public Date extractClaim(Verification verification) {
+        return verification.jwtService.extractClaim(verification.nextToken(), Claims::getExpiration);
+    }
+
+    /**
+     * Service et tokens utilisés pour l'extraction, selon la taille du cache des tokens vérifiés.
+     */
+    @State(Scope.Benchmark)
+    public static class Verification {
+
+        /**
+         * Taille du cache des tokens vérifiés : 0 le désactive.
+         */
+        @Param({"0", "10000"})
+        public long verifiedCacheMaxSize;
+
+        private JwtService jwtService;
+        private String[] tokens;
+        private int next;
+
+        @Setup
+        public void setUp() {
+            jwtService = new JwtService(new SimpleMeterRegistry(), verifiedCacheMaxSize);
+            tokens = new String[TOKEN_COUNT];
+            for (int i = 0; i < TOKEN_COUNT; i++) {
+                tokens[i] = jwtService.generateToken("user" + i);
+            }
+        }
+
+        private String nextToken() {
+            next = (next + 1) & (TOKEN_COUNT - 1);
+            return tokens[next];
+        }
+    }
+}
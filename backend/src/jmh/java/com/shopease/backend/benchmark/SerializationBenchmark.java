@@ -0,0 +1,104 @@
+package com.shopease.backend.benchmark;
+
+/**
+ * Micro-benchmarks de la sérialisation JSON des réponses du catalogue : listes d'entités
+ * {@link Product} (avec leur catégorie) et {@link Category}, et listes de résumés
+ * {@link ProductSummary} servies par les endpoints de liste, pour des tailles croissantes.
+ * L'{@link ObjectMapper} est construit comme celui de Spring Boot.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopease.backend.dto.ProductSummary;
+import com.shopease.backend.entity.Category;
+import com.shopease.backend.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int CATEGORY_COUNT = 20;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private List<Category> categories;
+    private List<ProductSummary> summaries;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Category> allCategories = new ArrayList<>(CATEGORY_COUNT);
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            Category category = new Category();
+            category.setId((long) i + 1);
+            category.setName("Catégorie " + i);
+            allCategories.add(category);
+        }
+
+        products = new ArrayList<>(size);
+        categories = new ArrayList<>(size);
+        summaries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Category category = allCategories.get(i % CATEGORY_COUNT);
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Produit " + i);
+            product.setDescription("Description du produit " + i + ", en coton biologique");
+            product.setPrice(BigDecimal.valueOf(1999 + i, 2));
+            product.setImageUrl("https://example.com/images/" + i + ".png");
+            product.setStock(i % 50);
+            product.setCategory(category);
+            products.add(product);
+
+            Category listed = new Category();
+            listed.setId((long) i + 1);
+            listed.setName("Catégorie " + i);
+            categories.add(listed);
+
+            summaries.add(new ProductSummary(product.getId(), product.getName(), product.getPrice(),
+                    product.getStock(), product.getImageUrl(), category.getId(), category.getName()));
+        }
+    }
+
+    @Benchmark
+    public byte[] products() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] categories() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(categories);
+    }
+}
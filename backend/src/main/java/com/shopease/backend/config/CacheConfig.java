@@ -0,0 +1,45 @@
+package com.shopease.backend.config;
+
+/**
+ * Configuration des caches applicatifs de ShopEase.
+ *
+ * Chaque cache est borné (taille et durée de vie) et enregistre ses statistiques,
+ * exposées par l'actuator sous les métriques {@code cache.gets}, {@code cache.puts},
+ * {@code cache.evictions} et {@code cache.size}.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Nom du cache des produits, indexé par identifiant.
+     */
+    public static final String PRODUCTS = "products";
+
+    /**
+     * Fournit le gestionnaire de caches basé sur Caffeine.
+     *
+     * @param productsSpec la spécification Caffeine du cache des produits (taille maximale, expiration)
+     * @return le CacheManager utilisé par les annotations {@code @Cacheable} / {@code @CacheEvict}
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${shopease.cache.products.spec:maximumSize=10000,expireAfterWrite=10m}") String productsSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Les absences ne sont pas mises en cache : un produit créé ensuite doit être visible immédiatement
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.from(productsSpec).recordStats().build());
+        return cacheManager;
+    }
+}
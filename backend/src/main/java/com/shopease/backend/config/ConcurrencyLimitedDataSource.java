@@ -0,0 +1,126 @@
+package com.shopease.backend.config;
+
+/**
+ * Source de données qui borne le nombre de connexions empruntées simultanément.
+ * <p>
+ * Avec les threads virtuels, le nombre de requêtes traitées en parallèle n'est plus limité
+ * par le pool de threads de Tomcat : des milliers de threads peuvent demander une connexion
+ * au même instant. Un sémaphore équitable placé devant le pool les fait attendre dans l'ordre
+ * d'arrivée, sans occuper de thread porteur, et rejette la demande après un délai borné
+ * plutôt que de laisser la file d'attente grossir sans limite. Le permis est rendu à la
+ * fermeture de la connexion.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutMillis;
+
+    /**
+     * @param target               la source de données réelle (le pool Hikari)
+     * @param maxConcurrency       le nombre maximal de connexions empruntées en même temps
+     * @param acquireTimeoutMillis le délai d'attente maximal d'un permis
+     */
+    public ConcurrencyLimitedDataSource(DataSource target, int maxConcurrency, long acquireTimeoutMillis) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Ferme le pool sous-jacent à l'arrêt du contexte, à la place du bean qu'elle remplace.
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Aucune connexion disponible après "
+                        + acquireTimeoutMillis + " ms (" + maxConcurrency + " connexions déjà empruntées)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Attente d'une connexion interrompue", e);
+        }
+    }
+
+    /**
+     * Enveloppe la connexion pour rendre le permis à sa fermeture, une seule fois.
+     */
+    private Connection limited(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            try {
+                                connection.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            // Méthodes JDBC déléguées telles quelles ci-dessous
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
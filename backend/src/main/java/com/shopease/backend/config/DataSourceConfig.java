@@ -0,0 +1,71 @@
+package com.shopease.backend.config;
+
+/**
+ * Configuration de l'accès à la base de données.
+ *
+ * La source de données créée par Spring Boot est enveloppée dans une
+ * {@link StatementTimingDataSource}, qui chronomètre chaque requête SQL pour le journal des
+ * requêtes lentes (désactivable par {@code shopease.jdbc.slow-query.enabled=false}).
+ *
+ * Lorsque {@code shopease.datasource.max-concurrency} est positif, elle est aussi enveloppée
+ * dans une {@link ConcurrencyLimitedDataSource}. Le profil {@code virtual} l'active avec une
+ * limite égale à la taille du pool Hikari.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.metrics.SlowQueryLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Enveloppe la source de données dans le limiteur de connexions simultanées.
+     *
+     * @param environment l'environnement (un post-processeur est créé trop tôt pour {@code @Value})
+     * @return le post-processeur qui remplace le bean {@code dataSource}
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimiter(Environment environment) {
+        int maxConcurrency = environment.getProperty("shopease.datasource.max-concurrency", Integer.class, 0);
+        long acquireTimeoutMillis = environment.getProperty("shopease.datasource.acquire-timeout-ms", Long.class, 5000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (maxConcurrency > 0 && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Enveloppe la source de données dans le chronométrage des requêtes SQL.
+     *
+     * @param environment  l'environnement (un post-processeur est créé trop tôt pour {@code @Value})
+     * @param slowQueryLog le journal des requêtes lentes, résolu au moment d'envelopper la source
+     * @return le post-processeur qui remplace le bean {@code dataSource}
+     */
+    @Bean
+    public static BeanPostProcessor statementTiming(Environment environment, ObjectProvider<SlowQueryLog> slowQueryLog) {
+        boolean enabled = environment.getProperty("shopease.jdbc.slow-query.enabled", Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof StatementTimingDataSource)) {
+                    return new StatementTimingDataSource(dataSource, slowQueryLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.shopease.backend.config;
+
+/**
+ * Configuration des métriques applicatives.
+ *
+ * Active l'annotation {@code @Timed} sur les services (temps et nombre d'appels par classe
+ * et par méthode, sous {@code shopease.service}) et branche {@link HibernateRequestStatistics}
+ * sur Hibernate pour les métriques par requête HTTP. Les statistiques globales d'Hibernate
+ * ({@code hibernate.*}) sont publiées par {@code hibernate-micrometer}.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.metrics.HibernateRequestStatistics;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Nom des timers posés par {@code @Timed} sur les services.
+     */
+    public static final String SERVICE_TIMER = "shopease.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Enregistre l'intercepteur (entités chargées) et l'écouteur de session (requêtes SQL,
+     * attente de connexion) qui alimentent les métriques par requête HTTP.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer requestStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.INTERCEPTOR, new HibernateRequestStatistics());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, HibernateRequestStatistics.class.getName());
+        };
+    }
+}
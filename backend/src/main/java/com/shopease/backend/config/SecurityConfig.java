@@ -9,6 +9,11 @@ package com.shopease.backend.config;
  * @author Fadhel Smari
  */
 
+import com.shopease.backend.security.CachedUserDetailsService;
+import com.shopease.backend.security.JwtAuthenticationFilter;
+import com.shopease.backend.service.JwtService;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,7 +23,11 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 public class SecurityConfig {
@@ -27,17 +36,27 @@ public class SecurityConfig {
      * Configure la chaîne de filtres de sécurité pour les requêtes HTTP.
      *
      * @param http l'objet HttpSecurity utilisé pour configurer la sécurité web
+     * @param jwtService le service qui vérifie les jetons JWT présentés par les clients
+     * @param userDetailsService le cache des utilisateurs authentifiés
      * @return la chaîne de filtres configurée
      * @throws Exception en cas d’erreur lors de la configuration
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtService jwtService,
+                                                   CachedUserDetailsService userDetailsService) throws Exception {
         // Désactive la protection CSRF (utile pour les API REST stateless)
         http.csrf(AbstractHttpConfigurer::disable)
                 // Configuration des autorisations des requêtes HTTP
                 .authorizeHttpRequests(auth -> auth
                         // Autorise librement toutes les requêtes vers /api/auth/**
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Les images produit sont publiques (balises <img>, CDN) : leur nom est l'empreinte du contenu
+                        .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, "/api/images/**").permitAll()
+                        // Laisse passer les renvois internes d'une requête déjà autorisée : la reprise
+                        // d'une réponse asynchrone (CompletableFuture) et le renvoi vers /error, pour que
+                        // les erreurs (404, 409, ...) gardent leur statut au lieu d'être masquées par un 401
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         // Exige une authentification pour toute autre requête
                         .anyRequest().authenticated()
                 )
@@ -45,7 +64,15 @@ public class SecurityConfig {
                 // Configure la politique de session pour ne pas stocker l’état de session (stateless)
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
-                );
+                )
+
+                // Une requête sans jeton valide reçoit 401 au lieu de 403
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                )
+
+                // Authentifie les requêtes à partir du jeton JWT (Authorization: Bearer ...)
+                .addFilterBefore(new JwtAuthenticationFilter(jwtService, userDetailsService), UsernamePasswordAuthenticationFilter.class);
 
         // Construit et retourne la chaîne de filtres
         return http.build();
@@ -53,13 +80,15 @@ public class SecurityConfig {
 
     /**
      * Fournit un encodeur de mot de passe utilisant l'algorithme BCrypt.
+     * Les hashes produits avec un coût inférieur sont recalculés à la connexion suivante.
      *
+     * @param strength le coût BCrypt (log2 du nombre d'itérations, entre 4 et 31)
      * @return une instance de PasswordEncoder (BCrypt)
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
+    public PasswordEncoder passwordEncoder(@Value("${shopease.auth.bcrypt.strength:10}") int strength) {
         // Utilise BCrypt pour encoder les mots de passe
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(strength);
     }
 
     /**
@@ -0,0 +1,148 @@
+package com.shopease.backend.config;
+
+/**
+ * Source de données qui chronomètre chaque exécution de requête SQL et la transmet au
+ * {@link SlowQueryLog}.
+ * <p>
+ * Les connexions et les requêtes préparées sont enveloppées dans des proxys qui retiennent
+ * le texte SQL à la préparation et mesurent les appels {@code execute*}. Les paramètres liés
+ * ne sont ni copiés ni formatés : le coût par requête se limite à deux lectures d'horloge.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.metrics.SlowQueryLog;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class StatementTimingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * @param target       la source de données réelle
+     * @param slowQueryLog le journal qui reçoit les durées d'exécution
+     */
+    public StatementTimingDataSource(DataSource target, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    /**
+     * Ferme le pool sous-jacent à l'arrêt du contexte, à la place du bean qu'elle remplace.
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Enveloppe la connexion pour chronométrer les requêtes qu'elle crée.
+     */
+    private Connection timed(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            // Méthodes JDBC déléguées telles quelles ci-dessous
+                        }
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return timed(statement, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Enveloppe une requête ({@code Statement}, {@code PreparedStatement} ou
+     * {@code CallableStatement}, selon le type demandé) pour chronométrer ses exécutions.
+     *
+     * @param preparedSql le texte de la requête préparée, {@code null} pour un simple {@code Statement}
+     */
+    private Statement timed(Statement statement, Class<?> type, String preparedSql) {
+        Batch batch = new Batch();
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    switch (name) {
+                        case "addBatch" -> {
+                            batch.size++;
+                            if (args != null && args.length == 1) {
+                                batch.sql = (String) args[0];
+                            }
+                        }
+                        case "clearBatch" -> batch.size = 0;
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            // Méthodes JDBC déléguées telles quelles ci-dessous
+                        }
+                    }
+                    if (!name.startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                            : preparedSql != null ? preparedSql : batch.sql;
+                    int batchSize = name.contains("Batch") ? batch.size : 0;
+                    batch.size = name.contains("Batch") ? 0 : batch.size;
+                    boolean succeeded = false;
+                    long start = System.nanoTime();
+                    try {
+                        Object result = invoke(statement, method, args);
+                        succeeded = true;
+                        return result;
+                    } finally {
+                        slowQueryLog.record(sql, System.nanoTime() - start, batchSize, succeeded);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Lot JDBC en cours de constitution sur une requête (une requête n'est utilisée que par un thread).
+     */
+    private static final class Batch {
+        private int size;
+        private String sql;
+    }
+}
@@ -0,0 +1,40 @@
+package com.shopease.backend.config;
+
+/**
+ * Configuration des formats de réponse de l'API.
+ *
+ * En plus du JSON, les endpoints répondent en CBOR (JSON binaire, {@code application/cbor})
+ * lorsque le client l'accepte : mêmes champs, sans guillemets ni nombres en texte. Le
+ * convertisseur part du même paramétrage Jackson que le JSON (modules, dates, inclusions).
+ * La compression gzip des réponses est configurée par {@code server.compression.*}.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class WebConfig {
+
+    /**
+     * Crée un {@link ObjectMapper} CBOR avec le paramétrage Jackson de l'application.
+     *
+     * @param builder le constructeur fourni par Spring Boot (un nouveau à chaque injection)
+     */
+    public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false).factory(new CBORFactory()).build();
+    }
+
+    /**
+     * Remplace le convertisseur CBOR par défaut de Spring MVC, qui ignore le paramétrage de Spring Boot.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+    }
+}
@@ -4,6 +4,10 @@ package com.shopease.backend.controller;
  * Contrôleur REST qui expose les services d'enregistrement et de connexion.
  *
  * Permet aux utilisateurs de créer un compte ou de se connecter via des requêtes HTTP POST.
+ * Les réponses sont asynchrones : le thread de requête est libéré pendant le calcul BCrypt.
+ * La connexion et l'inscription passent d'abord par le limiteur de débit (429 au-delà), avant
+ * tout accès à la base. La disponibilité d'un nom d'utilisateur peut être vérifiée à la saisie, sans inscription,
+ * dans la limite d'un débit propre par adresse.
  *
  * Chemin d'accès de base : /api/auth
  *
@@ -13,11 +17,16 @@ package com.shopease.backend.controller;
 import com.shopease.backend.dto.AuthResponse;
 import com.shopease.backend.dto.LoginRequest;
 import com.shopease.backend.dto.RegisterRequest;
+import com.shopease.backend.dto.UsernameAvailability;
+import com.shopease.backend.security.AuthRateLimiter;
 import com.shopease.backend.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -25,26 +34,51 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private AuthRateLimiter rateLimiter;
+
     /**
      * Enregistre un nouvel utilisateur.
      *
      * @param request les informations d'inscription (nom, email, mot de passe, etc.)
+     * @param http    la requête HTTP, pour l'adresse du client
      * @return la réponse avec le jeton JWT et les détails de l'utilisateur
      */
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@RequestBody RegisterRequest request) {
-        return ResponseEntity.ok(authService.register(request));
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@RequestBody RegisterRequest request,
+                                                                    HttpServletRequest http) {
+        rateLimiter.check("register", http.getRemoteAddr(), request.getUsername());
+        return authService.register(request).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Vérifie si un nom d'utilisateur est libre. Appelé par le formulaire d'inscription à la
+     * saisie, il a sa propre limite de débit par adresse (429 au-delà) et n'entame pas celle de
+     * la connexion et de l'inscription : un nom libre est confirmé sans accès à la base, un nom
+     * pris par une recherche indexée.
+     *
+     * @param username le nom d'utilisateur à vérifier
+     * @param http     la requête HTTP, pour l'adresse du client
+     * @return le nom vérifié et sa disponibilité
+     */
+    @GetMapping("/username-available")
+    public UsernameAvailability isUsernameAvailable(@RequestParam String username, HttpServletRequest http) {
+        rateLimiter.checkLookup("username-available", http.getRemoteAddr());
+        return new UsernameAvailability(username, authService.isUsernameAvailable(username));
     }
 
     /**
      * Authentifie un utilisateur avec son username et son mot de passe.
      *
      * @param request les informations de connexion (username et mot de passe)
+     * @param http    la requête HTTP, pour l'adresse du client
      * @return la réponse avec le jeton JWT et les détails de l'utilisateur
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authService.authenticate(request));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody LoginRequest request,
+                                                                 HttpServletRequest http) {
+        rateLimiter.check("login", http.getRemoteAddr(), request.getUsername());
+        return authService.authenticate(request).thenApply(ResponseEntity::ok);
     }
 }
 
@@ -0,0 +1,62 @@
+package com.shopease.backend.controller;
+
+/**
+ * Contrôleur REST du panier de l'utilisateur connecté.
+ *
+ * Le panier est tenu en mémoire et tarifé au prix courant à chaque réponse.
+ *
+ * Chemin d'accès de base : /api/cart
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.dto.CartView;
+import com.shopease.backend.dto.CheckoutRequest;
+import com.shopease.backend.service.CartService;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/cart")
+@CrossOrigin(origins = "*")
+public class CartController {
+
+    private final CartService cartService;
+
+    public CartController(CartService cartService) {
+        this.cartService = cartService;
+    }
+
+    @GetMapping
+    public CartView getCart(Principal principal) {
+        return cartService.getCart(principal.getName());
+    }
+
+    /**
+     * Ajoute des unités d'un produit ({@code {"productId": 4, "quantity": 1}}).
+     */
+    @PostMapping("/items")
+    public CartView addItem(@RequestBody CheckoutRequest.Item item, Principal principal) {
+        return cartService.addItem(principal.getName(), item.getProductId(), item.getQuantity());
+    }
+
+    /**
+     * Fixe la quantité d'un produit ({@code {"quantity": 3}}) ; 0 le retire du panier.
+     */
+    @PutMapping("/items/{productId}")
+    public CartView setQuantity(@PathVariable Long productId, @RequestBody CheckoutRequest.Item item,
+                                Principal principal) {
+        return cartService.setQuantity(principal.getName(), productId, item.getQuantity());
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public CartView removeItem(@PathVariable Long productId, Principal principal) {
+        return cartService.removeItem(principal.getName(), productId);
+    }
+
+    @DeleteMapping
+    public CartView clear(Principal principal) {
+        return cartService.clear(principal.getName());
+    }
+}
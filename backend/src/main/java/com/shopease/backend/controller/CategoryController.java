@@ -1,7 +1,14 @@
 package com.shopease.backend.controller;
 
+import com.shopease.backend.dto.CategorySummary;
 import com.shopease.backend.entity.Category;
 import com.shopease.backend.service.CategoryService;
+import com.shopease.backend.service.CategorySnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,13 +25,25 @@ public class CategoryController {
         this.service = service;
     }
 
-    @GetMapping
-    public List<Category> getAll() {
-        return service.getAll();
+    /**
+     * Retourne la liste des catégories pré-sérialisée, en JSON ou en CBOR selon l'en-tête
+     * {@code Accept}, avec un ETag fort propre à chaque format.
+     * Une requête portant un {@code If-None-Match} identique reçoit un 304 sans corps.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<byte[]> getAll(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CategorySnapshot snapshot = service.getSnapshot();
+        boolean cbor = prefersCbor(accept);
+        return ResponseEntity.ok()
+                .eTag(cbor ? snapshot.getCborEtag() : snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .body(cbor ? snapshot.getCbor() : snapshot.getJson());
     }
 
     @GetMapping("/{id}")
-    public Optional<Category> getById(@PathVariable Long id) {
+    public Optional<CategorySummary> getById(@PathVariable Long id) {
         return service.getById(id);
     }
 
@@ -37,5 +56,24 @@ public class CategoryController {
     public void delete(@PathVariable Long id) {
         service.delete(id);
     }
-}
 
+    /**
+     * Indique si le client préfère le CBOR : le JSON reste servi par défaut, y compris pour {@code *}{@code /*}.
+     */
+    private static boolean prefersCbor(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return true;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
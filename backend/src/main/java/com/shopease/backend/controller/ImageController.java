@@ -0,0 +1,138 @@
+package com.shopease.backend.controller;
+
+/**
+ * Contrôleur REST qui sert les images produit du {@link ProductImageStore}, sans authentification.
+ *
+ * Le nom d'une image est l'empreinte de son contenu : il sert d'ETag fort, et la réponse
+ * peut être gardée un an par les navigateurs et les CDN ({@code immutable}). Les requêtes
+ * {@code Range} (une plage) et {@code If-Range} sont prises en charge. Le fichier est transmis
+ * sans passer par la mémoire de la JVM : par {@code sendfile} lorsque Tomcat le propose
+ * (connecteur NIO), sinon par {@link FileChannel#transferTo}.
+ *
+ * Chemin d'accès de base : /api/images
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.service.ProductImageStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = "*")
+public class ImageController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final ProductImageStore imageStore;
+
+    public ImageController(ProductImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
+    /**
+     * Retourne une image, ou sa miniature lorsque {@code width} est précisé. Tant que la
+     * miniature n'est pas calculée, l'image d'origine est servie sans mise en cache.
+     */
+    @GetMapping("/{name:.+}")
+    public void getImage(@PathVariable String name, @RequestParam(required = false) Integer width,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path original = imageStore.original(name)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image introuvable"));
+        String hash = name.substring(0, name.lastIndexOf('.'));
+        if (width == null) {
+            serve(original, "\"" + hash + "\"", IMMUTABLE, request, response);
+            return;
+        }
+        Optional<Path> thumbnail = imageStore.thumbnail(name, width);
+        if (thumbnail.isPresent()) {
+            serve(thumbnail.get(), "\"" + hash + "-" + width + "\"", IMMUTABLE, request, response);
+        } else {
+            serve(original, "\"" + hash + "\"", CacheControl.noCache(), request, response);
+        }
+    }
+
+    private void serve(Path file, String etag, CacheControl cacheControl,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            long start = 0;
+            long end = length;
+            String range = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(range);
+                } catch (IllegalArgumentException e) {
+                    ranges = List.of();
+                }
+                // Plusieurs plages (multipart/byteranges) : le fichier entier est renvoyé
+                if (ranges.size() == 1) {
+                    HttpRange requested = ranges.get(0);
+                    try {
+                        start = requested.getRangeStart(length);
+                        end = requested.getRangeEnd(length) + 1;
+                    } catch (IllegalArgumentException e) {
+                        start = length;
+                    }
+                    if (start >= length || start >= end) {
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                        return;
+                    }
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+                }
+            }
+
+            response.setContentType(ProductImageStore.mediaType(file).toString());
+            response.setContentLengthLong(end - start);
+            if ("HEAD".equals(request.getMethod())) {
+                return;
+            }
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat envoie le fichier lui-même (sendfile) une fois la méthode terminée
+                request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end);
+                return;
+            }
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position < end; ) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+}
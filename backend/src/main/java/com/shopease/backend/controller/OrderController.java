@@ -0,0 +1,52 @@
+package com.shopease.backend.controller;
+
+/**
+ * Contrôleur REST des commandes de l'utilisateur connecté.
+ *
+ * Le passage de commande est asynchrone : la requête est libérée pendant que la commande
+ * attend son micro-lot dans le pipeline.
+ *
+ * Chemin d'accès de base : /api/orders
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.dto.CheckoutRequest;
+import com.shopease.backend.entity.Order;
+import com.shopease.backend.service.OrderService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/orders")
+@CrossOrigin(origins = "*")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    public OrderController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    /**
+     * Passe une commande ; répond 201 avec la commande confirmée, 409 si le stock ne suffit pas.
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<Order>> placeOrder(@RequestBody CheckoutRequest request, Principal principal) {
+        return orderService.placeOrder(principal.getName(), request)
+                .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED).body(order));
+    }
+
+    /**
+     * Liste les commandes de l'utilisateur connecté.
+     */
+    @GetMapping
+    public List<Order> getMyOrders(Principal principal) {
+        return orderService.getOrdersForUser(principal.getName());
+    }
+}
@@ -1,10 +1,40 @@
 package com.shopease.backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopease.backend.dto.ProductBrowseResult;
+import com.shopease.backend.dto.ProductImportReport;
+import com.shopease.backend.dto.ProductLookup;
+import com.shopease.backend.dto.ProductPage;
+import com.shopease.backend.dto.ProductSummary;
 import com.shopease.backend.entity.Product;
+import com.shopease.backend.service.CatalogSnapshot;
+import com.shopease.backend.service.ProductChangeStream;
+import com.shopease.backend.service.ProductExportService;
+import com.shopease.backend.service.ProductImageStore;
+import com.shopease.backend.service.ProductImportService;
+import com.shopease.backend.service.ProductSearchIndex;
 import com.shopease.backend.service.ProductService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
@@ -12,14 +42,149 @@ import java.util.Optional;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSearchIndex searchIndex;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ProductImportService importService;
+    private final ProductExportService exportService;
+    private final ProductImageStore imageStore;
+    private final ProductChangeStream changeStream;
+    private final ObjectMapper objectMapper;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSearchIndex searchIndex,
+                             CatalogSnapshot catalogSnapshot, ProductImportService importService,
+                             ProductExportService exportService, ProductImageStore imageStore,
+                             ProductChangeStream changeStream, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.searchIndex = searchIndex;
+        this.catalogSnapshot = catalogSnapshot;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.imageStore = imageStore;
+        this.changeStream = changeStream;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ProductPage getProducts(@RequestParam(defaultValue = "id") String sort,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer size) {
+        ProductService.SortOrder order = "price".equalsIgnoreCase(sort)
+                ? ProductService.SortOrder.PRICE
+                : ProductService.SortOrder.ID;
+        return productService.getProductPage(order, cursor, size);
+    }
+
+    /**
+     * Lecture groupée : {@code GET /api/products?ids=4,8,15}. Un élément par identifiant, dans
+     * l'ordre demandé, avec un marqueur {@code NOT_FOUND} pour les produits inexistants.
+     */
+    @GetMapping(params = "ids")
+    public List<ProductLookup> getProductsByIds(@RequestParam List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    /**
+     * Lecture groupée pour les longues listes, dont l'URL dépasserait les limites des
+     * proxys : le corps est un tableau JSON d'identifiants.
+     */
+    @PostMapping("/lookup")
+    public List<ProductLookup> lookupProducts(@RequestBody List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    /**
+     * Diffuse tout le catalogue en NDJSON (un produit JSON par ligne), au fil de la lecture en base.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // Les lignes sont séparées explicitement par '\n' (pas de séparateur par défaut)
+                generator.setRootValueSeparator(null);
+                productService.streamSummaries(product -> {
+                    try {
+                        generator.writeObject(product);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Export complet du catalogue (produits et catégories), compressé en gzip, au format
+     * NDJSON ou CSV. Le fichier est écrit au fil de la lecture en base, sans être construit en mémoire.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        ProductExportService.Format exportFormat;
+        try {
+            exportFormat = ProductExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String fileName = "products-" + LocalDate.now() + "." + exportFormat.name().toLowerCase(Locale.ROOT) + ".gz";
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+            exportService.export(exportFormat, gzip);
+            gzip.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Recherche plein texte sur le nom et la description, servie par l'index en mémoire.
+     * Les résultats sont classés par pertinence ; le dernier mot est complété comme un préfixe.
+     */
+    @GetMapping("/search")
+    public List<ProductSummary> searchProducts(@RequestParam("q") String query,
+                                       @RequestParam(required = false) Integer size) {
+        List<Long> ids = searchIndex.search(query, productService.resolvePageSize(size));
+        return productService.getSummariesByIds(ids);
+    }
+
+    /**
+     * Navigation dans le catalogue : filtres par catégorie, plage de prix et disponibilité,
+     * tri par prix et nombre de produits par catégorie, servis par l'instantané colonnaire.
+     */
+    @GetMapping("/browse")
+    public ProductBrowseResult browseProducts(@RequestParam(required = false) Long categoryId,
+                                              @RequestParam(required = false) BigDecimal minPrice,
+                                              @RequestParam(required = false) BigDecimal maxPrice,
+                                              @RequestParam(defaultValue = "false") boolean inStock,
+                                              @RequestParam(defaultValue = "price_asc") String sort,
+                                              @RequestParam(defaultValue = "0") int offset,
+                                              @RequestParam(required = false) Integer size) {
+        CatalogSnapshot.Result result = catalogSnapshot.query(new CatalogSnapshot.Query(
+                categoryId,
+                minPrice == null ? null : CatalogSnapshot.toMinorUnits(minPrice),
+                maxPrice == null ? null : CatalogSnapshot.toMinorUnits(maxPrice),
+                inStock,
+                "price_desc".equalsIgnoreCase(sort),
+                Math.max(0, offset),
+                productService.resolvePageSize(size)));
+        return new ProductBrowseResult(result.total(), productService.getSummariesByIds(result.ids()), result.facets());
+    }
+
+    /**
+     * Flux SSE des changements de prix, de stock et de disponibilité, à la place d'une
+     * interrogation périodique du catalogue. Sans filtre, tous les produits sont suivis.
+     * Les changements rapprochés d'un même produit sont fusionnés ; un événement {@code resync}
+     * demande au client de relire le catalogue.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Set<Long> ids,
+                                    @RequestParam(required = false) Set<Long> categoryIds) {
+        return changeStream.subscribe(ids == null ? Set.of() : ids, categoryIds == null ? Set.of() : categoryIds);
     }
 
     @GetMapping("/{id}")
@@ -32,6 +197,34 @@ public class ProductController {
         return productService.saveProduct(product);
     }
 
+    /**
+     * Import en masse depuis un flux CSV (avec en-tête), lu au fil de l'eau et inséré par lots.
+     */
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ProductImportReport importCsv(InputStream body) throws IOException {
+        return importService.importCsv(body);
+    }
+
+    /**
+     * Import en masse depuis un flux NDJSON (un produit par ligne), lu au fil de l'eau et inséré par lots.
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ProductImportReport importNdjson(InputStream body) throws IOException {
+        return importService.importNdjson(body);
+    }
+
+    /**
+     * Enregistre l'image d'un produit, envoyée telle quelle dans le corps de la requête, et
+     * renseigne son {@code imageUrl} ({@code /api/images/<empreinte>.<extension>}).
+     */
+    @PutMapping(path = "/{id}/image", consumes = MediaType.ALL_VALUE)
+    public Product uploadImage(@PathVariable Long id, InputStream body) throws IOException {
+        if (productService.getProductById(id).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produit introuvable");
+        }
+        return productService.updateImageUrl(id, "/api/images/" + imageStore.store(body));
+    }
+
     @PutMapping("/{id}")
     public Product updateProduct(@PathVariable Long id, @RequestBody Product product) {
         product.setId(id);
@@ -43,4 +236,3 @@ public class ProductController {
         productService.deleteProduct(id);
     }
 }
-
@@ -0,0 +1,58 @@
+package com.shopease.backend.controller;
+
+/**
+ * Contrôleur REST des réservations de stock.
+ *
+ * Une réservation retire immédiatement les unités du stock ; elle doit ensuite être confirmée
+ * ou libérée, faute de quoi elle est libérée automatiquement à son expiration.
+ *
+ * Chemin d'accès de base : /api/stock/reservations
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.dto.ReservationRequest;
+import com.shopease.backend.entity.StockReservation;
+import com.shopease.backend.service.StockService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/stock/reservations")
+@CrossOrigin(origins = "*")
+public class StockController {
+
+    private final StockService stockService;
+
+    public StockController(StockService stockService) {
+        this.stockService = stockService;
+    }
+
+    /**
+     * Réserve des unités d'un produit ; répond 409 si le stock restant ne suffit pas.
+     */
+    @PostMapping
+    public ResponseEntity<StockReservation> reserve(@RequestBody ReservationRequest request, Principal principal) {
+        StockReservation reservation = stockService.reserve(request.getProductId(), request.getQuantity(), principal.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    /**
+     * Confirme une réservation en attente.
+     */
+    @PostMapping("/{id}/commit")
+    public StockReservation commit(@PathVariable Long id, Principal principal) {
+        return stockService.commit(id, principal.getName());
+    }
+
+    /**
+     * Libère une réservation en attente et rend ses unités au stock.
+     */
+    @DeleteMapping("/{id}")
+    public StockReservation release(@PathVariable Long id, Principal principal) {
+        return stockService.release(id, principal.getName());
+    }
+}
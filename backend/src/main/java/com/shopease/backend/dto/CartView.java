@@ -0,0 +1,69 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente le panier d'un utilisateur tarifé au prix courant des produits.
+ *
+ * Contient les lignes du panier, dans l'ordre des identifiants de produit, et le montant total.
+ *
+ * @author Fadhel Smari
+ */
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class CartView {
+    private final List<Line> items;
+    private final BigDecimal total;
+
+    public CartView(List<Line> items, BigDecimal total) {
+        this.items = items;
+        this.total = total;
+    }
+
+    public List<Line> getItems() {
+        return items;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    /**
+     * Une ligne du panier : le produit, son prix unitaire courant et la quantité.
+     */
+    public static class Line {
+        private final Long productId;
+        private final String name;
+        private final BigDecimal unitPrice;
+        private final int quantity;
+        private final BigDecimal lineTotal;
+
+        public Line(Long productId, String name, BigDecimal unitPrice, int quantity) {
+            this.productId = productId;
+            this.name = name;
+            this.unitPrice = unitPrice;
+            this.quantity = quantity;
+            this.lineTotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getLineTotal() {
+            return lineTotal;
+        }
+    }
+}
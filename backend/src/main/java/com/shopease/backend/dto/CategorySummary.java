@@ -0,0 +1,28 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente une catégorie telle qu'exposée par l'API : identifiant et nom.
+ *
+ * Cette projection est lue par une requête JPQL {@code select new} ; l'instantané des
+ * catégories la conserve à la place des entités, qui ne restent ainsi pas détachées en mémoire.
+ *
+ * @author Fadhel Smari
+ */
+
+public class CategorySummary {
+    private final Long id;
+    private final String name;
+
+    public CategorySummary(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
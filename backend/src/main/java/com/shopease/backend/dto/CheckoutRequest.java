@@ -0,0 +1,45 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente une demande de commande : la liste des produits et des quantités souhaitées.
+ *
+ * @author Fadhel Smari
+ */
+
+import java.util.List;
+
+public class CheckoutRequest {
+    private List<Item> items;
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    /**
+     * Une ligne de la demande : un produit et sa quantité.
+     */
+    public static class Item {
+        private Long productId;
+        private int quantity;
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
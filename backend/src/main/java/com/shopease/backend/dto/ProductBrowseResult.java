@@ -0,0 +1,38 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente le résultat d'une navigation filtrée dans le catalogue.
+ *
+ * Contient le nombre total de produits retenus par les filtres, la page de produits
+ * demandée (triée par prix) et, pour chaque identifiant de catégorie, le nombre de
+ * produits correspondant aux filtres de prix et de stock.
+ *
+ * @author Fadhel Smari
+ */
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductBrowseResult {
+    private final int total;
+    private final List<ProductSummary> items;
+    private final Map<Long, Integer> facets;
+
+    public ProductBrowseResult(int total, List<ProductSummary> items, Map<Long, Integer> facets) {
+        this.total = total;
+        this.items = items;
+        this.facets = facets;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public List<ProductSummary> getItems() {
+        return items;
+    }
+
+    public Map<Long, Integer> getFacets() {
+        return facets;
+    }
+}
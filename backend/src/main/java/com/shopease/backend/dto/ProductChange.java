@@ -0,0 +1,65 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente un changement de prix, de stock ou de disponibilité d'un produit, diffusé
+ * aux abonnés du flux {@code GET /api/products/changes}.
+ *
+ * Un produit supprimé n'a ni prix ni stock : seul {@code deleted} est renseigné.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChange {
+    private final Long id;
+    private final Long categoryId;
+    private final BigDecimal price;
+    private final Integer stock;
+    private final boolean available;
+    private final boolean deleted;
+
+    private ProductChange(Long id, Long categoryId, BigDecimal price, Integer stock, boolean deleted) {
+        this.id = id;
+        this.categoryId = categoryId;
+        this.price = price;
+        this.stock = stock;
+        this.available = !deleted && stock != null && stock > 0;
+        this.deleted = deleted;
+    }
+
+    public static ProductChange updated(Long id, Long categoryId, BigDecimal price, int stock) {
+        return new ProductChange(id, categoryId, price, stock, false);
+    }
+
+    public static ProductChange deleted(Long id, Long categoryId) {
+        return new ProductChange(id, categoryId, null, null, true);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
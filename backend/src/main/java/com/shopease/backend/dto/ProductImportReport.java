@@ -0,0 +1,68 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente le bilan d'un import en masse de produits.
+ *
+ * Contient le nombre de lignes importées et rejetées, ainsi que le détail des erreurs
+ * par ligne (limité aux premières erreurs pour garder une taille de réponse bornée).
+ *
+ * @author Fadhel Smari
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportReport {
+    private long imported;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+    private final int maxReportedErrors;
+
+    public ProductImportReport(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addError(long line, String message) {
+        failed++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Erreur associée à une ligne du fichier importé.
+     */
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente un élément de la réponse d'une lecture groupée de produits.
+ *
+ * Chaque identifiant demandé donne un élément, dans l'ordre de la requête : le produit
+ * lorsqu'il existe ({@code FOUND}), sinon un marqueur {@code NOT_FOUND} sans produit.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shopease.backend.entity.Product;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductLookup {
+
+    public enum Status {
+        FOUND, NOT_FOUND
+    }
+
+    private final Long id;
+    private final Status status;
+    private final Product product;
+
+    private ProductLookup(Long id, Status status, Product product) {
+        this.id = id;
+        this.status = status;
+        this.product = product;
+    }
+
+    public static ProductLookup found(Product product) {
+        return new ProductLookup(product.getId(), Status.FOUND, product);
+    }
+
+    public static ProductLookup notFound(Long id) {
+        return new ProductLookup(id, Status.NOT_FOUND, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+}
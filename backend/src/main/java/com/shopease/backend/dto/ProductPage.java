@@ -0,0 +1,30 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente une page de produits obtenue par pagination par curseur (keyset).
+ *
+ * Le champ {@code next} contient un curseur opaque à renvoyer tel quel pour obtenir
+ * la page suivante ; il vaut {@code null} lorsque la dernière page est atteinte.
+ *
+ * @author Fadhel Smari
+ */
+
+import java.util.List;
+
+public class ProductPage {
+    private final List<ProductSummary> items;
+    private final String next;
+
+    public ProductPage(List<ProductSummary> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<ProductSummary> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,62 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente un produit tel qu'affiché dans les listes du catalogue.
+ *
+ * Cette projection est construite directement par les requêtes JPQL (expression
+ * {@code select new}) : aucune entité n'est chargée ni gérée par le contexte de persistance,
+ * et la catégorie est réduite à son identifiant et à son nom, lus par la même jointure.
+ *
+ * @author Fadhel Smari
+ */
+
+import java.math.BigDecimal;
+
+public class ProductSummary {
+    private final Long id;
+    private final String name;
+    private final BigDecimal price;
+    private final int stock;
+    private final String imageUrl;
+    private final Long categoryId;
+    private final String categoryName;
+
+    public ProductSummary(Long id, String name, BigDecimal price, int stock, String imageUrl,
+                          Long categoryId, String categoryName) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.stock = stock;
+        this.imageUrl = imageUrl;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+}
@@ -0,0 +1,28 @@
+package com.shopease.backend.dto;
+
+/**
+ * Représente une demande de réservation de stock : le produit et le nombre d'unités.
+ *
+ * @author Fadhel Smari
+ */
+
+public class ReservationRequest {
+    private Long productId;
+    private int quantity;
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,25 @@
+package com.shopease.backend.dto;
+
+/**
+ * Réponse de la vérification de disponibilité d'un nom d'utilisateur.
+ *
+ * @author Fadhel Smari
+ */
+
+public class UsernameAvailability {
+    private final String username;
+    private final boolean available;
+
+    public UsernameAvailability(String username, boolean available) {
+        this.username = username;
+        this.available = available;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Représente la copie persistée du panier d'un utilisateur.
+ *
+ * Le panier vit en mémoire dans {@code CartService} ; cette ligne n'en est qu'un instantané,
+ * écrit périodiquement lorsque le panier a changé, pour survivre à une éviction ou à un redémarrage.
+ * Les lignes sont encodées en binaire : pour chacune, l'identifiant du produit (8 octets)
+ * suivi de la quantité (4 octets).
+ *
+ * @author Fadhel Smari
+ */
+
+package com.shopease.backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "carts")
+public class Cart {
+
+    @Id
+    private String username;
+
+    @Column(nullable = false, length = 16384)
+    private byte[] items;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    // Getters & Setters
+
+    public String getUsername() {
+        return username;
+    }
+
+    public byte[] getItems() {
+        return items;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public void setItems(byte[] items) {
+        this.items = items;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,13 +1,18 @@
 package com.shopease.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "categories")
+// Une catégorie chargée à la demande est un proxy Hibernate : ses champs techniques ne sont pas sérialisés
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Category {
 
+    // Séquence avec pré-allocation : permet à Hibernate de regrouper les INSERT en lots JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
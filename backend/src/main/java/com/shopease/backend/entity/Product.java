@@ -7,8 +7,10 @@ import java.math.BigDecimal;
 @Table(name = "products")
 public class Product {
 
+    // Séquence avec pré-allocation : permet à Hibernate de regrouper les INSERT en lots JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -25,7 +27,8 @@ public class Product {
     @Column(nullable = false)
     private int stock;
 
-    @ManyToOne
+    // Chargée à la demande : les listes passent par des projections, la fiche produit par un graphe de chargement
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
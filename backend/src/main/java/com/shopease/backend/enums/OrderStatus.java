@@ -0,0 +1,15 @@
+/**
+ * Enumération représentant les états d'une commande.
+ *
+ * Une commande est enregistrée {@code CONFIRMED} une fois validée, tarifée et son stock
+ * décrémenté ; {@code CANCELLED} est réservé à l'annulation ultérieure.
+ *
+ * @author Fadhel Smari
+ */
+
+package com.shopease.backend.enums;
+
+public enum OrderStatus {
+    CONFIRMED,
+    CANCELLED
+}
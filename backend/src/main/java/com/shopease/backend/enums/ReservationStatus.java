@@ -0,0 +1,16 @@
+/**
+ * Enumération représentant les états d'une réservation de stock.
+ *
+ * Une réservation naît {@code PENDING} ; elle est ensuite soit confirmée ({@code COMMITTED}),
+ * soit libérée ({@code RELEASED}) par le client ou à l'expiration de son délai.
+ *
+ * @author Fadhel Smari
+ */
+
+package com.shopease.backend.enums;
+
+public enum ReservationStatus {
+    PENDING,
+    COMMITTED,
+    RELEASED
+}
@@ -0,0 +1,52 @@
+package com.shopease.backend.event;
+
+/**
+ * Événement publié par {@link com.shopease.backend.service.ProductService} après chaque création,
+ * mise à jour ou suppression d'un produit, une fois l'écriture validée en base.
+ *
+ * Les index en mémoire (recherche, catalogue, etc.) s'y abonnent pour se mettre à jour
+ * de façon incrémentale, sans relire la table des produits.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.entity.Product;
+
+public class ProductChangedEvent {
+    private final Long productId;
+    private final Product product;
+
+    private ProductChangedEvent(Long productId, Product product) {
+        this.productId = productId;
+        this.product = product;
+    }
+
+    /**
+     * Crée l'événement associé à un produit créé ou mis à jour.
+     */
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    /**
+     * Crée l'événement associé à un produit supprimé.
+     */
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    /**
+     * Retourne l'état du produit après l'écriture, ou {@code null} s'il a été supprimé.
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
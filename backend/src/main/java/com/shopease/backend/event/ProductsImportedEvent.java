@@ -0,0 +1,26 @@
+package com.shopease.backend.event;
+
+/**
+ * Événement publié après la validation de chaque lot d'un import en masse de produits.
+ *
+ * Les index en mémoire l'utilisent pour intégrer un lot entier en une seule opération,
+ * plutôt que produit par produit.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.entity.Product;
+
+import java.util.List;
+
+public class ProductsImportedEvent {
+    private final List<Product> products;
+
+    public ProductsImportedEvent(List<Product> products) {
+        this.products = List.copyOf(products);
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+}
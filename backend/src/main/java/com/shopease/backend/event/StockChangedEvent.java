@@ -0,0 +1,33 @@
+package com.shopease.backend.event;
+
+/**
+ * Événement publié par {@link com.shopease.backend.service.StockService} lorsque le stock d'un
+ * produit a été modifié par une réservation, une fois la transaction validée.
+ *
+ * Seule la variation est transmise : les index en mémoire l'appliquent sans relire le produit.
+ * Ses écouteurs sont des {@code @TransactionalEventListener} de phase {@code AFTER_COMMIT} :
+ * publié dans une transaction englobante, il n'est traité qu'après la validation de celle-ci.
+ *
+ * @author Fadhel Smari
+ */
+
+public class StockChangedEvent {
+    private final Long productId;
+    private final int delta;
+
+    public StockChangedEvent(Long productId, int delta) {
+        this.productId = productId;
+        this.delta = delta;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    /**
+     * Retourne la variation du stock : négative pour une réservation, positive pour une libération.
+     */
+    public int getDelta() {
+        return delta;
+    }
+}
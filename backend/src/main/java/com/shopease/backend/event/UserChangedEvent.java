@@ -0,0 +1,43 @@
+package com.shopease.backend.event;
+
+/**
+ * Événement publié après la création ou la modification d'un utilisateur
+ * ({@link com.shopease.backend.service.AuthService#register}, {@link com.shopease.backend.service.UserService#saveUser}).
+ *
+ * Le cache des utilisateurs authentifiés s'y abonne pour oublier l'instantané de l'utilisateur,
+ * rechargé depuis la base à sa prochaine requête. L'ancien nom d'utilisateur est fourni lorsqu'il
+ * a changé, afin que l'instantané rangé sous ce nom soit oublié lui aussi.
+ *
+ * @author Fadhel Smari
+ */
+
+public class UserChangedEvent {
+    private final Long userId;
+    private final String username;
+    private final String previousUsername;
+
+    public UserChangedEvent(Long userId, String username) {
+        this(userId, username, null);
+    }
+
+    public UserChangedEvent(Long userId, String username, String previousUsername) {
+        this.userId = userId;
+        this.username = username;
+        this.previousUsername = previousUsername;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return le nom d'utilisateur avant la modification, ou {@code null} s'il est inchangé
+     */
+    public String getPreviousUsername() {
+        return previousUsername;
+    }
+}
@@ -0,0 +1,101 @@
+package com.shopease.backend.exception;
+
+/**
+ * Traduit les exceptions applicatives en réponses HTTP au format Problem Details (RFC 9457).
+ *
+ * @author Fadhel Smari
+ */
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /**
+     * Répond 503 avec un en-tête {@code Retry-After} lorsqu'une ressource interne est saturée.
+     *
+     * @param e l'exception levée
+     * @return la réponse 503
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleServiceUnavailable(ServiceUnavailableException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(problem);
+    }
+
+    /**
+     * Répond 503 lorsqu'aucune connexion à la base n'a pu être obtenue à temps
+     * (limiteur de connexions ou pool saturé).
+     *
+     * @param e l'exception levée
+     * @return la réponse 503
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ProblemDetail> handleDatabaseUnavailable(RuntimeException e) {
+        return handleServiceUnavailable(
+                new ServiceUnavailableException("Base de données saturée, veuillez réessayer", 1));
+    }
+
+    /**
+     * Répond 429 avec un en-tête {@code Retry-After} lorsqu'un client dépasse son débit autorisé.
+     *
+     * @param e l'exception levée
+     * @return la réponse 429
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ProblemDetail> handleTooManyRequests(TooManyRequestsException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(problem);
+    }
+
+    /**
+     * Répond 409 lorsqu'une réservation dépasse le stock disponible.
+     *
+     * @param e l'exception levée
+     * @return la réponse 409
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ProblemDetail> handleInsufficientStock(InsufficientStockException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+        problem.setProperty("productId", e.getProductId());
+        problem.setProperty("requested", e.getRequested());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(problem);
+    }
+
+    /**
+     * Répond 409 lorsqu'une inscription demande un nom d'utilisateur déjà pris.
+     *
+     * @param e l'exception levée
+     * @return la réponse 409
+     */
+    @ExceptionHandler(UsernameTakenException.class)
+    public ResponseEntity<ProblemDetail> handleUsernameTaken(UsernameTakenException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+        problem.setProperty("username", e.getUsername());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(problem);
+    }
+
+    /**
+     * Répond 401 lorsque les identifiants présentés à la connexion sont refusés.
+     *
+     * @param e l'exception levée
+     * @return la réponse 401
+     */
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ProblemDetail> handleAuthentication(AuthenticationException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(problem);
+    }
+}
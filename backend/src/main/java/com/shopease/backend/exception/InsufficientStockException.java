@@ -0,0 +1,29 @@
+package com.shopease.backend.exception;
+
+/**
+ * Exception levée lorsqu'une réservation demande plus d'unités qu'il n'en reste en stock.
+ *
+ * Elle est traduite en réponse HTTP 409 par {@link GlobalExceptionHandler}.
+ *
+ * @author Fadhel Smari
+ */
+
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+    private final int requested;
+
+    public InsufficientStockException(Long productId, int requested) {
+        super("Stock insuffisant pour le produit " + productId + " (quantité demandée : " + requested + ")");
+        this.productId = productId;
+        this.requested = requested;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+}
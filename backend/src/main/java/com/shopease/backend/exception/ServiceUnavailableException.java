@@ -0,0 +1,25 @@
+package com.shopease.backend.exception;
+
+/**
+ * Exception levée lorsqu'une ressource interne est saturée et que la requête
+ * doit être rejetée immédiatement plutôt que mise en attente.
+ *
+ * Elle est traduite en réponse HTTP 503 avec un en-tête {@code Retry-After}
+ * par {@link GlobalExceptionHandler}.
+ *
+ * @author Fadhel Smari
+ */
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
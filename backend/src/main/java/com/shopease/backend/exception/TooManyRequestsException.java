@@ -0,0 +1,25 @@
+package com.shopease.backend.exception;
+
+/**
+ * Exception levée lorsqu'un client dépasse son débit autorisé.
+ *
+ * Elle est traduite en réponse HTTP 429 avec un en-tête {@code Retry-After} par
+ * {@link GlobalExceptionHandler}. Elle ne capture pas de pile d'appels : un rejet doit
+ * coûter aussi peu que possible pendant un afflux de requêtes.
+ *
+ * @author Fadhel Smari
+ */
+
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.shopease.backend.exception;
+
+/**
+ * Exception levée lorsqu'une inscription demande un nom d'utilisateur déjà pris.
+ *
+ * Elle est traduite en réponse HTTP 409 par {@link GlobalExceptionHandler}.
+ *
+ * @author Fadhel Smari
+ */
+
+public class UsernameTakenException extends RuntimeException {
+
+    private final String username;
+
+    public UsernameTakenException(String username) {
+        super("Nom d'utilisateur déjà pris : " + username);
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
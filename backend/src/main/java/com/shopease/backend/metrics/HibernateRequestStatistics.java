@@ -0,0 +1,50 @@
+package com.shopease.backend.metrics;
+
+/**
+ * Alimente les compteurs de la requête HTTP en cours à partir des événements Hibernate :
+ * requêtes SQL préparées et attente d'une connexion (écouteur de session), entités chargées
+ * (intercepteur). Sans état : la même classe sert d'intercepteur partagé et d'écouteur
+ * instancié par session.
+ *
+ * @author Fadhel Smari
+ */
+
+import org.hibernate.Interceptor;
+import org.hibernate.SessionEventListener;
+import org.hibernate.type.Type;
+
+public class HibernateRequestStatistics implements SessionEventListener, Interceptor {
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.statementPrepared();
+        }
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.connectionAcquisitionStarted();
+        }
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.connectionAcquisitionEnded();
+        }
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.entityLoaded();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.shopease.backend.metrics;
+
+/**
+ * Compteurs d'accès à la base d'une requête HTTP, rattachés au thread qui la traite.
+ * <p>
+ * Ouverts par {@link RequestStatisticsFilter} et alimentés par {@link HibernateRequestStatistics}.
+ * Le travail délégué à d'autres threads (pool de hachage, pipeline de commande) n'est pas compté.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+final class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entityLoads;
+    private int connectionAcquisitions;
+    private long connectionAcquireNanos;
+    private long acquisitionStartedAt;
+
+    private RequestStatistics() {
+    }
+
+    /**
+     * Ouvre les compteurs de la requête traitée par le thread courant.
+     */
+    static RequestStatistics open() {
+        RequestStatistics statistics = new RequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Détache les compteurs du thread courant.
+     */
+    static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Retourne les compteurs de la requête en cours, ou {@code null} hors d'une requête HTTP.
+     */
+    static RequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void connectionAcquisitionStarted() {
+        acquisitionStartedAt = System.nanoTime();
+    }
+
+    void connectionAcquisitionEnded() {
+        connectionAcquisitions++;
+        connectionAcquireNanos += System.nanoTime() - acquisitionStartedAt;
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    int getEntityLoads() {
+        return entityLoads;
+    }
+
+    int getConnectionAcquisitions() {
+        return connectionAcquisitions;
+    }
+
+    long getConnectionAcquireNanos() {
+        return connectionAcquireNanos;
+    }
+}
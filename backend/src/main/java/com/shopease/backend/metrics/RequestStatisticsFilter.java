@@ -0,0 +1,74 @@
+package com.shopease.backend.metrics;
+
+/**
+ * Enregistre, pour chaque requête HTTP, le nombre de requêtes SQL préparées, le nombre
+ * d'entités chargées et le temps d'attente d'une connexion JDBC, étiquetés par route
+ * ({@code uri}, comme {@code http.server.requests}) et méthode HTTP :
+ * <ul>
+ *     <li>{@code shopease.request.jdbc.statements}</li>
+ *     <li>{@code shopease.request.entity.loads}</li>
+ *     <li>{@code shopease.request.jdbc.connection.acquire}</li>
+ * </ul>
+ * Une route dont le nombre de requêtes SQL grimpe signale un N+1 sans attacher de profileur.
+ *
+ * @author Fadhel Smari
+ */
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestStatisticsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = RequestStatistics.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStatistics.close();
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("uri", pattern != null ? pattern.toString() : "UNKNOWN", "method", request.getMethod());
+        DistributionSummary.builder("shopease.request.jdbc.statements")
+                .description("Requêtes SQL préparées par requête HTTP")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("shopease.request.entity.loads")
+                .description("Entités chargées par requête HTTP")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getEntityLoads());
+        if (statistics.getConnectionAcquisitions() > 0) {
+            Timer.builder("shopease.request.jdbc.connection.acquire")
+                    .description("Attente cumulée d'une connexion JDBC par requête HTTP")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(statistics.getConnectionAcquireNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
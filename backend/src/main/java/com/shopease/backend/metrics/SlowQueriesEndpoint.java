@@ -0,0 +1,37 @@
+package com.shopease.backend.metrics;
+
+/**
+ * Endpoint d'actuator {@code /actuator/slowqueries} : les requêtes SQL lentes récentes
+ * relevées par {@link SlowQueryLog}, de la plus lente à la plus rapide. Un {@code DELETE}
+ * vide le tampon, par exemple avant de rejouer un scénario.
+ *
+ * @author Fadhel Smari
+ */
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueriesEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public List<SlowQueryLog.SlowQuery> slowQueries() {
+        return slowQueryLog.slowest();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
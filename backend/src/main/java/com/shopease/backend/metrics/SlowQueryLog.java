@@ -0,0 +1,182 @@
+package com.shopease.backend.metrics;
+
+/**
+ * Journal des requêtes SQL lentes, alimenté par {@code StatementTimingDataSource}.
+ * <p>
+ * Chaque exécution est chronométrée dans le timer {@code shopease.jdbc.statement} (étiqueté
+ * {@code outcome}), ce qui ne coûte qu'une lecture d'horloge et un enregistrement. Seules les
+ * requêtes au-delà du seuil sont journalisées et conservées ; un échantillon des autres peut
+ * être journalisé au niveau INFO. Le texte n'est normalisé (littéraux remplacés par {@code ?},
+ * listes {@code IN} repliées, espaces réduits) que pour ces requêtes.
+ * </p>
+ * <p>
+ * Les dernières requêtes lentes sont gardées dans un tampon circulaire sans verrou : chaque
+ * écriture prend l'emplacement suivant par un compteur atomique et remplace la plus ancienne.
+ * {@link #slowest()} les renvoie de la plus lente à la plus rapide.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+@Component
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final int MAX_SQL_LENGTH = 4000;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin \\(\\?(?:, ?\\?)+\\)");
+
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Counter slowCount;
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final AtomicReferenceArray<SlowQuery> recent;
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * @param thresholdMillis durée à partir de laquelle une requête est journalisée et conservée
+     * @param sampleRate      part des autres requêtes journalisées au niveau INFO (0 = aucune)
+     * @param bufferSize      nombre de requêtes lentes récentes conservées
+     */
+    public SlowQueryLog(MeterRegistry meterRegistry,
+                        @Value("${shopease.jdbc.slow-query.threshold-ms:200}") long thresholdMillis,
+                        @Value("${shopease.jdbc.slow-query.sample-rate:0}") double sampleRate,
+                        @Value("${shopease.jdbc.slow-query.buffer-size:100}") int bufferSize) {
+        this.succeeded = statementTimer(meterRegistry, "success");
+        this.failed = statementTimer(meterRegistry, "error");
+        this.slowCount = Counter.builder("shopease.jdbc.statement.slow")
+                .description("Requêtes SQL au-delà du seuil de lenteur")
+                .register(meterRegistry);
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.recent = new AtomicReferenceArray<>(Math.max(bufferSize, 1));
+    }
+
+    /**
+     * Enregistre une exécution.
+     *
+     * @param sql        le texte de la requête tel qu'envoyé au pilote
+     * @param nanos      la durée d'exécution
+     * @param batchSize  le nombre de requêtes du lot JDBC, 0 hors lot
+     * @param succeeded  faux si le pilote a levé une exception
+     */
+    public void record(String sql, long nanos, int batchSize, boolean succeeded) {
+        (succeeded ? this.succeeded : failed).record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos >= thresholdNanos) {
+            SlowQuery query = new SlowQuery(normalize(sql), nanos / 1_000_000.0, batchSize, succeeded, Instant.now());
+            recent.set((int) (writes.getAndIncrement() % recent.length()), query);
+            slowCount.increment();
+            log.warn("Requête SQL lente ({} ms{}{}) : {}", String.format("%.1f", query.getDurationMs()),
+                    batchSize > 0 ? ", lot de " + batchSize : "", succeeded ? "" : ", en erreur", query.getSql());
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Requête SQL ({} ms) : {}", String.format("%.1f", nanos / 1_000_000.0), normalize(sql));
+        }
+    }
+
+    /**
+     * Renvoie les requêtes lentes récentes, de la plus lente à la plus rapide.
+     */
+    public List<SlowQuery> slowest() {
+        List<SlowQuery> queries = new ArrayList<>(recent.length());
+        for (int i = 0; i < recent.length(); i++) {
+            SlowQuery query = recent.get(i);
+            if (query != null) {
+                queries.add(query);
+            }
+        }
+        queries.sort(Comparator.comparingDouble(SlowQuery::getDurationMs).reversed());
+        return queries;
+    }
+
+    /**
+     * Vide le tampon des requêtes lentes.
+     */
+    public void clear() {
+        for (int i = 0; i < recent.length(); i++) {
+            recent.set(i, null);
+        }
+    }
+
+    /**
+     * Réduit une requête à sa forme générique, pour que les exécutions d'une même requête
+     * avec des valeurs différentes se ressemblent.
+     */
+    static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMERIC_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?, ...)");
+        return normalized.length() > MAX_SQL_LENGTH ? normalized.substring(0, MAX_SQL_LENGTH) + "..." : normalized;
+    }
+
+    private static Timer statementTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("shopease.jdbc.statement")
+                .description("Durée d'exécution des requêtes SQL")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Une requête lente conservée dans le tampon.
+     */
+    public static final class SlowQuery {
+        private final String sql;
+        private final double durationMs;
+        private final int batchSize;
+        private final boolean succeeded;
+        private final Instant executedAt;
+
+        private SlowQuery(String sql, double durationMs, int batchSize, boolean succeeded, Instant executedAt) {
+            this.sql = sql;
+            this.durationMs = durationMs;
+            this.batchSize = batchSize;
+            this.succeeded = succeeded;
+            this.executedAt = executedAt;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public double getDurationMs() {
+            return durationMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public boolean isSucceeded() {
+            return succeeded;
+        }
+
+        public Instant getExecutedAt() {
+            return executedAt;
+        }
+    }
+}
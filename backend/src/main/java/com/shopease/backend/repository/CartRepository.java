@@ -0,0 +1,7 @@
+package com.shopease.backend.repository;
+
+import com.shopease.backend.entity.Cart;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CartRepository extends JpaRepository<Cart, String> {
+}
@@ -1,8 +1,17 @@
 package com.shopease.backend.repository;
 
+import com.shopease.backend.dto.CategorySummary;
 import com.shopease.backend.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-}
 
+    /**
+     * Toutes les catégories sous forme de projections, triées par identifiant.
+     */
+    @Query("select new com.shopease.backend.dto.CategorySummary(c.id, c.name) from Category c order by c.id")
+    List<CategorySummary> findAllSummaries();
+}
@@ -0,0 +1,18 @@
+package com.shopease.backend.repository;
+
+import com.shopease.backend.entity.Order;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Commandes d'un utilisateur avec leurs lignes, des plus récentes aux plus anciennes.
+     */
+    @Query("select distinct o from Order o left join fetch o.lines " +
+            "where o.user.username = :username order by o.createdAt desc, o.id desc")
+    List<Order> findByUsernameWithLines(@Param("username") String username);
+}
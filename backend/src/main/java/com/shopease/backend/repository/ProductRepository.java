@@ -3,9 +3,113 @@ package com.shopease.backend.repository;
 
 
 
+import com.shopease.backend.dto.ProductSummary;
 import com.shopease.backend.entity.Product;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
 
+    /**
+     * Projection d'un produit et du nom de sa catégorie, lue en une seule requête (jointure externe).
+     */
+    String SUMMARY = "select new com.shopease.backend.dto.ProductSummary("
+            + "p.id, p.name, p.price, p.stock, p.imageUrl, c.id, c.name) "
+            + "from Product p left join p.category c ";
+
+    /**
+     * Page suivante triée par identifiant (pagination par curseur / keyset).
+     */
+    @Query(SUMMARY + "where p.id > :afterId order by p.id")
+    List<ProductSummary> findPageAfterId(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Première page triée par prix croissant, l'identifiant servant de départage.
+     */
+    @Query(SUMMARY + "order by p.price, p.id")
+    List<ProductSummary> findFirstPageByPrice(Limit limit);
+
+    /**
+     * Page suivante triée par prix croissant, à partir du couple (prix, id) du dernier élément reçu.
+     */
+    @Query(SUMMARY
+            + "where p.price > :price or (p.price = :price and p.id > :afterId) "
+            + "order by p.price, p.id")
+    List<ProductSummary> findPageAfterPrice(@Param("price") BigDecimal price, @Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Projections des produits demandés, dans un ordre quelconque.
+     */
+    @Query(SUMMARY + "where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Parcourt les projections de tout le catalogue avec un curseur côté base ;
+     * doit être appelé dans une transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY + "order by p.id")
+    Stream<ProductSummary> streamAllSummaries();
+
+    /**
+     * Charge un produit avec sa catégorie en une seule requête.
+     */
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
+
+    /**
+     * Charge des produits avec leur catégorie en une seule requête.
+     */
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAllById(Iterable<Long> ids);
+
+    /**
+     * Parcourt tout le catalogue avec un curseur côté base ; doit être appelé dans une transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p from Product p left join fetch p.category order by p.id")
+    Stream<Product> streamAll();
+
+    /**
+     * Décrémente le stock en une seule requête conditionnelle : la ligne n'est modifiée que si
+     * le stock restant suffit, ce qui empêche toute survente sans verrou applicatif.
+     *
+     * @return 1 si le stock a été décrémenté, 0 si le produit est inconnu ou le stock insuffisant
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - :quantity where p.id = :id and p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Rend du stock à un produit.
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock + :quantity where p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Charge et verrouille en écriture ({@code SELECT ... FOR UPDATE}) les produits demandés,
+     * toujours dans l'ordre des identifiants pour que deux transactions concurrentes
+     * prennent leurs verrous dans le même ordre et ne puissent pas s'interbloquer.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+}
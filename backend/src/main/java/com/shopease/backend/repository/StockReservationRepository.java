@@ -0,0 +1,65 @@
+package com.shopease.backend.repository;
+
+import com.shopease.backend.entity.StockReservation;
+import com.shopease.backend.enums.ReservationStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Fait passer une réservation encore en attente et non expirée dans l'état demandé.
+     * La condition sur l'état rend la transition atomique : entre deux appels concurrents
+     * (client et balayage des expirations), un seul obtient 1. Le contexte de persistance est
+     * vidé ensuite : une réservation chargée avant n'est pas réécrite par un second UPDATE.
+     *
+     * @return le nombre de réservations modifiées (0 ou 1)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update StockReservation r set r.status = :target " +
+            "where r.id = :id and r.status = com.shopease.backend.enums.ReservationStatus.PENDING " +
+            "and r.expiresAt > :now")
+    int transitionFromPending(@Param("id") Long id, @Param("target") ReservationStatus target,
+                              @Param("now") Instant now);
+
+    /**
+     * Libère une réservation en attente, expirée ou non. Vide le contexte de persistance,
+     * comme {@link #transitionFromPending}.
+     *
+     * @return le nombre de réservations modifiées (0 ou 1)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update StockReservation r set r.status = com.shopease.backend.enums.ReservationStatus.RELEASED " +
+            "where r.id = :id and r.status = com.shopease.backend.enums.ReservationStatus.PENDING")
+    int releaseIfPending(@Param("id") Long id);
+
+    /**
+     * Réservations en attente dont le délai est dépassé, les plus anciennes d'abord.
+     */
+    @Query("select r from StockReservation r " +
+            "where r.status = com.shopease.backend.enums.ReservationStatus.PENDING and r.expiresAt <= :now " +
+            "order by r.expiresAt")
+    List<StockReservation> findExpired(@Param("now") Instant now, Limit limit);
+
+    /**
+     * Charge et verrouille en écriture les réservations en attente et non expirées des
+     * utilisateurs et produits donnés, dans l'ordre des identifiants. Le verrou empêche le
+     * balayage des expirations de libérer une réservation pendant qu'une commande la consomme.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r " +
+            "where r.status = com.shopease.backend.enums.ReservationStatus.PENDING and r.expiresAt > :now " +
+            "and r.username in :usernames and r.productId in :productIds order by r.id")
+    List<StockReservation> findPendingForUpdate(@Param("usernames") Collection<String> usernames,
+                                                @Param("productIds") Collection<Long> productIds,
+                                                @Param("now") Instant now);
+}
@@ -2,9 +2,51 @@ package com.shopease.backend.repository;
 
 
 import com.shopease.backend.entity.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByUsername(String username);
+
+    /**
+     * Vérifie l'existence d'un nom d'utilisateur par l'index unique, sans charger l'entité.
+     */
+    boolean existsByUsername(String username);
+
+    /**
+     * Parcourt tous les noms d'utilisateur avec un curseur côté base ; doit être appelé dans une transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.username from User u")
+    Stream<String> streamAllUsernames();
+
+    /**
+     * Lit le nom d'utilisateur enregistré en base, sans charger l'entité.
+     */
+    @Query("select u.username from User u where u.id = :id")
+    String findUsernameById(@Param("id") Long id);
+
+    /**
+     * Charge en une requête les utilisateurs d'un lot de commandes.
+     */
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+    /**
+     * Remplace le hash du mot de passe d'un utilisateur sans recharger l'entité.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
 
@@ -0,0 +1,175 @@
+package com.shopease.backend.security;
+
+/**
+ * Limiteur de débit des endpoints d'authentification, par adresse du client et par nom d'utilisateur.
+ * <p>
+ * Chaque connexion ou inscription coûte un calcul BCrypt : sans limite, une rafale de
+ * tentatives (bourrage d'identifiants) sature le pool de hachage et la base. Le limiteur
+ * est consulté avant toute lecture en base et tout hachage ; une requête refusée lève une
+ * {@link TooManyRequestsException} sans pile d'appels (HTTP 429 + {@code Retry-After}).
+ * </p>
+ * <p>
+ * Chaque clé a un seau à jetons (débit par minute et rafale) tenu en un seul {@code long},
+ * l'heure d'arrivée théorique de l'algorithme GCRA, mis à jour par compare-and-set sans
+ * verrou. Les seaux sont rangés dans un cache Caffeine borné qui oublie une clé dès que son
+ * seau est de nouveau plein.
+ * </p>
+ * <p>
+ * La vérification de disponibilité d'un nom d'utilisateur, appelée à la saisie, a sa propre
+ * limite par adresse ({@link #checkLookup}) : plus généreuse, elle n'entame pas celle de la
+ * connexion et de l'inscription, mais empêche d'énumérer les comptes en rafale.
+ * </p>
+ * <p>
+ * Métriques : {@code shopease.auth.rate-limit.rejected} (étiquettes {@code limit} :
+ * {@code address}, {@code username} ou {@code lookup}, et {@code endpoint}) et le nombre de clés suivies
+ * ({@code shopease.auth.rate-limit.keys}).
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopease.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class AuthRateLimiter {
+
+    private final boolean enabled;
+    private final Limit byAddress;
+    private final Limit byUsername;
+    private final Limit lookupByAddress;
+
+    /**
+     * @param enabled               faux pour désactiver le limiteur
+     * @param addressPerMinute      requêtes autorisées par minute et par adresse du client
+     * @param addressBurst          rafale autorisée par adresse du client
+     * @param usernamePerMinute     requêtes autorisées par minute et par nom d'utilisateur
+     * @param usernameBurst         rafale autorisée par nom d'utilisateur
+     * @param lookupPerMinute       vérifications de disponibilité autorisées par minute et par adresse
+     * @param lookupBurst           rafale de vérifications autorisée par adresse
+     * @param maxKeys               nombre maximal de seaux suivis par limite
+     */
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${shopease.auth.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${shopease.auth.rate-limit.address.per-minute:60}") int addressPerMinute,
+                           @Value("${shopease.auth.rate-limit.address.burst:20}") int addressBurst,
+                           @Value("${shopease.auth.rate-limit.username.per-minute:10}") int usernamePerMinute,
+                           @Value("${shopease.auth.rate-limit.username.burst:5}") int usernameBurst,
+                           @Value("${shopease.auth.rate-limit.lookup.per-minute:120}") int lookupPerMinute,
+                           @Value("${shopease.auth.rate-limit.lookup.burst:30}") int lookupBurst,
+                           @Value("${shopease.auth.rate-limit.max-keys:100000}") long maxKeys) {
+        this.enabled = enabled;
+        this.byAddress = new Limit("address", addressPerMinute, addressBurst, maxKeys, meterRegistry);
+        this.byUsername = new Limit("username", usernamePerMinute, usernameBurst, maxKeys, meterRegistry);
+        this.lookupByAddress = new Limit("lookup", lookupPerMinute, lookupBurst, maxKeys, meterRegistry);
+    }
+
+    /**
+     * Consomme un jeton pour l'adresse du client puis pour le nom d'utilisateur. Si le nom
+     * d'utilisateur est refusé, le jeton de l'adresse est rendu : seule une requête acceptée
+     * est décomptée aux deux limites.
+     *
+     * @param endpoint      l'endpoint appelé, pour les métriques ({@code login} ou {@code register})
+     * @param clientAddress l'adresse IP du client
+     * @param username      le nom d'utilisateur présenté, éventuellement {@code null}
+     * @throws TooManyRequestsException si l'une des deux limites est dépassée
+     */
+    public void check(String endpoint, String clientAddress, String username) {
+        if (!enabled) {
+            return;
+        }
+        byAddress.acquire(endpoint, clientAddress);
+        if (username != null && !username.isBlank()) {
+            try {
+                byUsername.acquire(endpoint, username.trim().toLowerCase(Locale.ROOT));
+            } catch (TooManyRequestsException e) {
+                byAddress.release(clientAddress);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Consomme un jeton de vérification pour l'adresse du client.
+     *
+     * @param endpoint      l'endpoint appelé, pour les métriques
+     * @param clientAddress l'adresse IP du client
+     * @throws TooManyRequestsException si la limite est dépassée
+     */
+    public void checkLookup(String endpoint, String clientAddress) {
+        if (enabled) {
+            lookupByAddress.acquire(endpoint, clientAddress);
+        }
+    }
+
+    /**
+     * Une limite : un seau GCRA par clé.
+     */
+    private static final class Limit {
+        private final String name;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Cache<String, AtomicLong> arrivals;
+        private final MeterRegistry meterRegistry;
+
+        private Limit(String name, int perMinute, int burst, long maxKeys, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(perMinute, 1);
+            this.toleranceNanos = intervalNanos * (Math.max(burst, 1) - 1);
+            // Au-delà de ce délai sans requête, le seau est de nouveau plein : l'oublier ne change rien
+            this.arrivals = Caffeine.newBuilder()
+                    .expireAfterAccess(Duration.ofNanos(intervalNanos + toleranceNanos))
+                    .maximumSize(maxKeys)
+                    .build();
+            this.meterRegistry = meterRegistry;
+            Gauge.builder("shopease.auth.rate-limit.keys", arrivals, Cache::estimatedSize)
+                    .description("Clés suivies par le limiteur des endpoints d'authentification")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+        }
+
+        private void acquire(String endpoint, String key) {
+            long now = System.nanoTime();
+            AtomicLong arrival = arrivals.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long theoretical = arrival.get();
+                long start = theoretical - now > 0 ? theoretical : now;
+                long waitNanos = start - now - toleranceNanos;
+                if (waitNanos > 0) {
+                    Counter.builder("shopease.auth.rate-limit.rejected")
+                            .description("Requêtes d'authentification refusées par le limiteur de débit")
+                            .tag("limit", name)
+                            .tag("endpoint", endpoint)
+                            .register(meterRegistry)
+                            .increment();
+                    throw new TooManyRequestsException("Trop de tentatives, veuillez réessayer plus tard",
+                            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+                }
+                if (arrival.compareAndSet(theoretical, start + intervalNanos)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Rend un jeton consommé par {@link #acquire} : l'heure d'arrivée théorique recule d'un intervalle.
+         */
+        private void release(String key) {
+            AtomicLong arrival = arrivals.getIfPresent(key);
+            if (arrival != null) {
+                arrival.addAndGet(-intervalNanos);
+            }
+        }
+    }
+}
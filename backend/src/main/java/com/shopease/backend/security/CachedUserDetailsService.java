@@ -0,0 +1,91 @@
+package com.shopease.backend.security;
+
+/**
+ * Résout les utilisateurs authentifiés depuis un cache borné d'instantanés {@link UserPrincipal}.
+ * <p>
+ * {@link JwtAuthenticationFilter} l'appelle à chaque requête authentifiée : seul un défaut de
+ * cache interroge la base. Les absences ne sont pas mises en cache, et l'instantané d'un
+ * utilisateur est oublié dès qu'un {@link UserChangedEvent} le signale (inscription,
+ * modification). Une durée de vie bornée rattrape les modifications faites hors de l'application.
+ * </p>
+ * <p>
+ * Les instantanés ne contiennent pas le hash du mot de passe : ce service n'implémente donc
+ * pas {@link org.springframework.security.core.userdetails.UserDetailsService}, pour que Spring
+ * Security ne l'utilise jamais pour une authentification par mot de passe. Il ne sert qu'au
+ * filtre JWT ; les mots de passe sont vérifiés par {@code AuthService}.
+ * </p>
+ * <p>
+ * Métriques : statistiques du cache ({@code cache.*}, cache {@code userPrincipals}).
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopease.backend.entity.User;
+import com.shopease.backend.event.UserChangedEvent;
+import com.shopease.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+public class CachedUserDetailsService {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserPrincipal> principals;
+
+    /**
+     * @param maxSize    le nombre maximal d'utilisateurs gardés en cache
+     * @param ttlSeconds la durée de vie d'un instantané
+     */
+    public CachedUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry,
+                                    @Value("${shopease.users.cache.max-size:10000}") long maxSize,
+                                    @Value("${shopease.users.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "userPrincipals");
+    }
+
+    /**
+     * Retourne l'instantané de l'utilisateur, lu en base au premier appel seulement.
+     *
+     * @throws UsernameNotFoundException si l'utilisateur n'existe pas
+     */
+    public UserPrincipal loadUserByUsername(String username) {
+        UserPrincipal principal = principals.get(username, this::load);
+        if (principal == null) {
+            throw new UsernameNotFoundException("Utilisateur introuvable : " + username);
+        }
+        return principal;
+    }
+
+    /**
+     * Oublie l'instantané d'un utilisateur créé ou modifié, y compris sous son ancien nom
+     * si le nom d'utilisateur a changé.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUsername() != null) {
+            principals.invalidate(event.getUsername());
+        }
+        if (event.getPreviousUsername() != null) {
+            principals.invalidate(event.getPreviousUsername());
+        }
+    }
+
+    private UserPrincipal load(String username) {
+        User user = userRepository.findByUsername(username);
+        return user == null ? null : UserPrincipal.of(user);
+    }
+}
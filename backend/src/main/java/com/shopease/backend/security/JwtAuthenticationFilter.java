@@ -0,0 +1,71 @@
+package com.shopease.backend.security;
+
+/**
+ * Filtre d'authentification par jeton JWT (en-tête {@code Authorization: Bearer <token>}).
+ *
+ * Pour chaque requête portant un jeton, le filtre vérifie sa signature et son expiration
+ * via {@link JwtService} (qui met en cache les jetons déjà vérifiés), résout l'utilisateur
+ * par {@link CachedUserDetailsService} (sans accès à la base tant qu'il est en cache), puis
+ * renseigne le contexte de sécurité avec son instantané et son rôle. Un jeton invalide ou
+ * expiré, ou celui d'un utilisateur supprimé, laisse la requête anonyme : les routes protégées
+ * répondent alors 401.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final CachedUserDetailsService userDetailsService;
+
+    public JwtAuthenticationFilter(JwtService jwtService, CachedUserDetailsService userDetailsService) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String token = header.substring(BEARER_PREFIX.length());
+        try {
+            // Lève une JwtException si la signature est invalide ou si le jeton est expiré
+            String username = jwtService.extractUsername(token);
+            if (username != null) {
+                UserPrincipal user = userDetailsService.loadUserByUsername(username);
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+        } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
+            // Jeton rejeté ou utilisateur supprimé : la requête continue sans authentification
+            SecurityContextHolder.clearContext();
+        }
+
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,72 @@
+package com.shopease.backend.security;
+
+/**
+ * Instantané immuable d'un utilisateur authentifié : identifiant, nom d'utilisateur et rôle.
+ *
+ * Il ne contient ni entité JPA ni hash de mot de passe : il peut être partagé entre requêtes
+ * et threads depuis le cache de {@link CachedUserDetailsService}. Les mots de passe sont
+ * vérifiés par {@link com.shopease.backend.service.AuthService}, jamais à partir de cet objet.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.entity.User;
+import com.shopease.backend.enums.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+public final class UserPrincipal implements UserDetails {
+    private final Long id;
+    private final String username;
+    private final Role role;
+    private final List<GrantedAuthority> authorities;
+
+    private UserPrincipal(Long id, String username, Role role) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.authorities = role == null ? List.of() : List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    /**
+     * Crée l'instantané d'un utilisateur lu en base.
+     */
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * Le hash n'est pas conservé dans l'instantané.
+     */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[" + username + ", " + role + "]";
+    }
+}
@@ -9,21 +9,41 @@ package com.shopease.backend.service;
  *     <li>Authentification d'un utilisateur existant (vérification du mot de passe et génération du token JWT)</li>
  * </ul>
  * </p>
+ * <p>
+ * Un nom d'utilisateur déjà pris est refusé avant tout calcul BCrypt, grâce au
+ * {@link UsernameRegistry} qui évite la base pour les noms libres.
+ * </p>
+ * <p>
+ * Les calculs BCrypt sont délégués à {@link PasswordHashingService} et s'exécutent hors du thread
+ * de requête ; les deux opérations retournent donc un {@link CompletableFuture}. Aucune connexion
+ * n'est tenue pendant le calcul (open-in-view désactivé), et l'enregistrement qui suit s'exécute
+ * sur le pool de suites de {@link PasswordHashingService}, pas sur les threads de hachage.
+ * </p>
  *
  * @author Fadhel Smari
  */
 
+import com.shopease.backend.config.MetricsConfig;
 import com.shopease.backend.dto.AuthResponse;
 import com.shopease.backend.dto.LoginRequest;
 import com.shopease.backend.dto.RegisterRequest;
 import com.shopease.backend.entity.User;
 import com.shopease.backend.enums.Role;
+import com.shopease.backend.event.UserChangedEvent;
+import com.shopease.backend.exception.ServiceUnavailableException;
+import com.shopease.backend.exception.UsernameTakenException;
 import com.shopease.backend.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class AuthService {
 
     @Autowired
@@ -33,7 +53,23 @@ public class AuthService {
     private JwtService jwtService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UsernameRegistry usernameRegistry;
+
+    /**
+     * Indique si un nom d'utilisateur est encore libre.
+     *
+     * @param username le nom d'utilisateur à vérifier
+     * @return {@code true} si aucun utilisateur ne porte ce nom
+     */
+    public boolean isUsernameAvailable(String username) {
+        return usernameRegistry.isAvailable(username);
+    }
 
     /**
      * Inscrit un nouvel utilisateur avec les données fournies dans la requête.
@@ -42,42 +78,81 @@ public class AuthService {
      *
      * @param request les informations d'inscription (nom, prénom, email, mot de passe, etc.)
      * @return une réponse contenant le token JWT généré
+     * @throws UsernameTakenException si le nom d'utilisateur est déjà pris
+     * @throws ServiceUnavailableException si le pool de hachage est saturé
      */
-    public AuthResponse register(RegisterRequest request) {
-        User user = new User();
-        user.setFirstname(request.getFirstname());
-        user.setLastname(request.getLastname());
-        user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setRole(Role.CLIENT);
-        user.setEmail(request.getEmail());
-        userRepository.save(user);
-
-        String token = jwtService.generateToken(user.getUsername());
-        return new AuthResponse(token);
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
+        if (request.getUsername() != null && !usernameRegistry.isAvailable(request.getUsername())) {
+            throw new UsernameTakenException(request.getUsername());
+        }
+        return passwordHashingService.encode(request.getPassword()).thenApply(encodedPassword -> {
+            User user = new User();
+            user.setFirstname(request.getFirstname());
+            user.setLastname(request.getLastname());
+            user.setUsername(request.getUsername());
+            user.setPassword(encodedPassword);
+            user.setRole(Role.CLIENT);
+            user.setEmail(request.getEmail());
+            try {
+                userRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                // Inscription concurrente sous le même nom, entre la vérification et l'enregistrement
+                if (userRepository.existsByUsername(user.getUsername())) {
+                    throw new UsernameTakenException(user.getUsername());
+                }
+                throw e;
+            }
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
+
+            String token = jwtService.generateToken(user.getUsername());
+            return new AuthResponse(token);
+        });
     }
 
     /**
      * Authentifie un utilisateur en vérifiant son nom d'utilisateur et son mot de passe.
      * Si les identifiants sont valides, un token JWT est généré et renvoyé.
+     * Si le hash stocké a été produit avec un coût BCrypt différent du coût configuré,
+     * il est recalculé en arrière-plan avec le mot de passe fourni.
      *
      * @param request les informations de connexion (nom d'utilisateur et mot de passe)
      * @return une réponse contenant le token JWT généré
-     * @throws RuntimeException si l'utilisateur n'est pas trouvé ou si le mot de passe est incorrect
+     * @throws BadCredentialsException si l'utilisateur n'est pas trouvé ou si le mot de passe est incorrect
+     * @throws ServiceUnavailableException si le pool de hachage est saturé
      */
-    public AuthResponse authenticate(LoginRequest request) {
+    public CompletableFuture<AuthResponse> authenticate(LoginRequest request) {
         User user = userRepository.findByUsername(request.getUsername());
 
         if (user == null) {
-            throw new RuntimeException("Utilisateur introuvable");
+            throw new BadCredentialsException("Utilisateur introuvable");
         }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Mot de passe incorrect");
-        }
+        return passwordHashingService.matches(request.getPassword(), user.getPassword()).thenApply(matches -> {
+            if (!matches) {
+                throw new BadCredentialsException("Mot de passe incorrect");
+            }
+
+            if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+                rehashPassword(user.getId(), request.getPassword());
+            }
 
-        String token = jwtService.generateToken(user.getUsername());
-        return new AuthResponse(token);
+            String token = jwtService.generateToken(user.getUsername());
+            return new AuthResponse(token);
+        });
+    }
+
+    /**
+     * Recalcule le hash d'un mot de passe avec le coût BCrypt courant et l'enregistre.
+     * L'opération est facultative : elle est ignorée si le pool de hachage est saturé
+     * et sera retentée à la prochaine connexion.
+     */
+    private void rehashPassword(Long userId, String rawPassword) {
+        try {
+            passwordHashingService.encode(rawPassword)
+                    .thenAccept(encodedPassword -> userRepository.updatePassword(userId, encodedPassword));
+        } catch (ServiceUnavailableException e) {
+            // Pool saturé : le hash sera mis à niveau lors d'une prochaine connexion
+        }
     }
 }
 
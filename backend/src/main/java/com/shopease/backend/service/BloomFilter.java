@@ -0,0 +1,102 @@
+package com.shopease.backend.service;
+
+/**
+ * Filtre de Bloom de chaînes : un tableau de bits et {@code k} positions par élément,
+ * dérivées de deux hachages 64 bits (double hachage de Kirsch et Mitzenmacher).
+ * <p>
+ * {@link #mightContain} ne se trompe jamais sur un élément ajouté ; pour un élément absent,
+ * il répond {@code true} avec la probabilité choisie à la construction, tant que le nombre
+ * d'éléments ajoutés ne dépasse pas la capacité prévue. Les éléments ne peuvent pas être
+ * retirés. Les ajouts et les lectures sont thread-safe et sans verrou.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * @param expectedInsertions le nombre d'éléments prévu
+     * @param falsePositiveRate  le taux de faux positifs visé à cette capacité (entre 0 et 1 exclus)
+     */
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.words = new AtomicLongArray(Math.max(1, wordCount));
+        this.bitCount = (long) words.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retourne le nombre d'ajouts (doublons compris).
+     */
+    long insertions() {
+        return insertions.get();
+    }
+
+    /**
+     * Retourne la taille du tableau de bits, en octets.
+     */
+    long sizeInBytes() {
+        return bitCount / 8;
+    }
+
+    /**
+     * FNV-1a 64 bits sur l'UTF-8 de la chaîne, suivi d'un mélange final.
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Mélange final de SplitMix64 : chaque bit d'entrée influence tous les bits de sortie.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,442 @@
+package com.shopease.backend.service;
+
+/**
+ * Service de gestion des paniers, conservés en mémoire et persistés en différé.
+ * <p>
+ * Chaque panier est une table primitive identifiant de produit → quantité
+ * ({@link LongIntHashMap}), sans entité JPA ni objet par ligne. Les paniers sont gardés
+ * dans un cache borné (nombre maximal de paniers, éviction après une période d'inactivité) ;
+ * un ajout au panier ne touche donc pas la base.
+ * </p>
+ * <p>
+ * Chaque modification incrémente la version du panier. Une tâche périodique écrit en lots,
+ * dans une transaction, les paniers dont la version n'a pas encore été persistée ; un panier
+ * évincé alors qu'il n'était pas encore écrit est conservé à part jusqu'à l'écriture suivante,
+ * et repris tel quel si son propriétaire revient entre-temps. À l'arrêt de l'application,
+ * tous les paniers modifiés sont écrits.
+ * </p>
+ * <p>
+ * Les paniers sont tarifés au prix courant en un seul appel à
+ * {@link ProductService#getProductsByIds(List)}, servi par le cache des produits.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.shopease.backend.dto.CartView;
+import com.shopease.backend.dto.ProductLookup;
+import com.shopease.backend.entity.Cart;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.repository.CartRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class CartService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+
+    /**
+     * Taille d'une ligne encodée : identifiant du produit (long) puis quantité (int).
+     */
+    private static final int ENCODED_LINE_SIZE = Long.BYTES + Integer.BYTES;
+
+    /**
+     * Nombre maximal de paniers écrits dans une même transaction.
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final CartRepository cartRepository;
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncCache<String, ActiveCart> loadingCarts;
+    // Vue synchrone du même cache : lectures, parcours et retraits des paniers chargés
+    private final Cache<String, ActiveCart> carts;
+
+    /**
+     * Paniers évincés du cache avant d'avoir été écrits, en attente de la prochaine écriture.
+     */
+    private final Map<String, ActiveCart> evicting = new ConcurrentHashMap<>();
+
+    private final int maxItems;
+    private final int maxQuantity;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param maxCarts           le nombre maximal de paniers gardés en mémoire
+     * @param idleTimeoutMinutes la durée d'inactivité après laquelle un panier est évincé de la mémoire
+     * @param maxItems           le nombre maximal de produits différents dans un panier, au plus
+     *                           {@code shopease.products.multi-get.max-ids} (tarification en un appel)
+     * @param maxQuantity        la quantité maximale d'un même produit
+     */
+    public CartService(CartRepository cartRepository,
+                       ProductService productService,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shopease.cart.max-carts:100000}") long maxCarts,
+                       @Value("${shopease.cart.idle-timeout-minutes:30}") long idleTimeoutMinutes,
+                       @Value("${shopease.cart.max-items:100}") int maxItems,
+                       @Value("${shopease.cart.max-quantity:999}") int maxQuantity) {
+        this.cartRepository = cartRepository;
+        this.productService = productService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+        this.maxQuantity = maxQuantity;
+        this.loadingCarts = Caffeine.newBuilder()
+                .maximumSize(maxCarts)
+                .expireAfterAccess(Duration.ofMinutes(idleTimeoutMinutes))
+                .scheduler(Scheduler.systemScheduler())
+                // Exécuté de façon atomique avec l'éviction, avant tout rechargement de la même clé
+                .<String, ActiveCart>evictionListener((username, cart, cause) -> {
+                    synchronized (cart) {
+                        if (cart.isDirty()) {
+                            evicting.put(username, cart);
+                        } else {
+                            cart.evicted = true;
+                        }
+                    }
+                })
+                .buildAsync();
+        this.carts = loadingCarts.synchronous();
+    }
+
+    /**
+     * Retourne le panier d'un utilisateur tarifé au prix courant ; les produits supprimés
+     * du catalogue depuis leur ajout sont ignorés.
+     */
+    public CartView getCart(String username) {
+        long[] productIds;
+        int[] quantities;
+        while (true) {
+            ActiveCart cart = activeCart(username);
+            synchronized (cart) {
+                if (cart.evicted) {
+                    carts.asMap().remove(username, cart);
+                    continue;
+                }
+                productIds = cart.sortedProductIds();
+                quantities = new int[productIds.length];
+                for (int i = 0; i < productIds.length; i++) {
+                    quantities[i] = cart.items.get(productIds[i]);
+                }
+                break;
+            }
+        }
+
+        List<ProductLookup> products = productService.getProductsByIds(Arrays.stream(productIds).boxed().toList());
+        List<CartView.Line> lines = new ArrayList<>(productIds.length);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < productIds.length; i++) {
+            Product product = products.get(i).getProduct();
+            if (product == null) {
+                continue;
+            }
+            CartView.Line line = new CartView.Line(productIds[i], product.getName(), product.getPrice(), quantities[i]);
+            lines.add(line);
+            total = total.add(line.getLineTotal());
+        }
+        return new CartView(lines, total);
+    }
+
+    /**
+     * Ajoute des unités d'un produit au panier.
+     */
+    public CartView addItem(String username, Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La quantité doit être positive");
+        }
+        requireProduct(productId);
+        update(username, items -> {
+            int current = items.get(productId);
+            // Comparaison par soustraction : current + quantity peut dépasser Integer.MAX_VALUE
+            if (quantity > maxQuantity - current) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "La quantité d'un produit est limitée à " + maxQuantity);
+            }
+            checkLine(items, current, current + quantity);
+            items.put(productId, current + quantity);
+        });
+        return getCart(username);
+    }
+
+    /**
+     * Fixe la quantité d'un produit dans le panier ; une quantité nulle retire le produit.
+     */
+    public CartView setQuantity(String username, Long productId, int quantity) {
+        if (quantity < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La quantité ne peut pas être négative");
+        }
+        if (quantity > 0) {
+            requireProduct(productId);
+        }
+        update(username, items -> {
+            checkLine(items, items.get(productId), quantity);
+            items.put(productId, quantity);
+        });
+        return getCart(username);
+    }
+
+    /**
+     * Retire un produit du panier.
+     */
+    public CartView removeItem(String username, Long productId) {
+        update(username, items -> items.remove(productId));
+        return getCart(username);
+    }
+
+    /**
+     * Vide le panier.
+     */
+    public CartView clear(String username) {
+        update(username, LongIntHashMap::clear);
+        return getCart(username);
+    }
+
+    /**
+     * Écrit en base les paniers modifiés depuis leur dernière écriture, par lots.
+     * Un lot en échec reste à écrire et sera retenté au passage suivant.
+     */
+    @Scheduled(fixedDelayString = "${shopease.cart.flush-interval-ms:5000}")
+    public void flushDirtyCarts() {
+        Map<String, PendingWrite> writes = new LinkedHashMap<>();
+        carts.asMap().forEach((username, cart) -> collect(username, cart, writes));
+        evicting.forEach((username, cart) -> collect(username, cart, writes));
+
+        List<PendingWrite> chunk = new ArrayList<>(FLUSH_BATCH_SIZE);
+        for (PendingWrite write : writes.values()) {
+            chunk.add(write);
+            if (chunk.size() == FLUSH_BATCH_SIZE) {
+                write(chunk);
+                chunk.clear();
+            }
+        }
+        write(chunk);
+
+        // Les paniers évincés désormais écrits peuvent être oubliés
+        evicting.forEach((username, cart) -> {
+            synchronized (cart) {
+                if (!cart.isDirty()) {
+                    evicting.remove(username, cart);
+                    CompletableFuture<ActiveCart> current = loadingCarts.getIfPresent(username);
+                    if (current == null || current.getNow(null) != cart) {
+                        cart.evicted = true;
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        flushDirtyCarts();
+    }
+
+    private void collect(String username, ActiveCart cart, Map<String, PendingWrite> writes) {
+        synchronized (cart) {
+            if (cart.isDirty()) {
+                writes.put(username, new PendingWrite(username, cart, cart.version, cart.encode()));
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Une seule requête pour les lignes existantes ; les écritures partent en lots JDBC
+                Map<String, Cart> existing = cartRepository.findAllById(
+                                chunk.stream().map(write -> write.username).toList()).stream()
+                        .collect(Collectors.toMap(Cart::getUsername, Function.identity()));
+                Instant now = Instant.now();
+                for (PendingWrite write : chunk) {
+                    Cart row = existing.get(write.username);
+                    if (write.items.length == 0) {
+                        if (row != null) {
+                            entityManager.remove(row);
+                        }
+                    } else if (row != null) {
+                        row.setItems(write.items);
+                        row.setUpdatedAt(now);
+                    } else {
+                        row = new Cart();
+                        row.setUsername(write.username);
+                        row.setItems(write.items);
+                        row.setUpdatedAt(now);
+                        entityManager.persist(row);
+                    }
+                }
+            });
+            for (PendingWrite write : chunk) {
+                synchronized (write.cart) {
+                    write.cart.persistedVersion = Math.max(write.cart.persistedVersion, write.version);
+                }
+            }
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Échec de l'écriture de {} panier(s), nouvel essai au prochain passage : {}",
+                    chunk.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Applique une modification au panier en mémoire de l'utilisateur. Si le panier obtenu
+     * vient d'être évincé (et déjà écrit), il est remplacé par une copie rechargée.
+     */
+    private void update(String username, Consumer<LongIntHashMap> change) {
+        while (true) {
+            ActiveCart cart = activeCart(username);
+            synchronized (cart) {
+                if (cart.evicted) {
+                    carts.asMap().remove(username, cart);
+                    continue;
+                }
+                change.accept(cart.items);
+                cart.version++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retourne le panier en mémoire de l'utilisateur, chargé au besoin. Le cache reçoit
+     * atomiquement un futur encore vide ; le thread qui l'a inséré lit la base et le complète
+     * hors du verrou interne de la table (un thread virtuel ne reste pas épinglé), et les appels
+     * concurrents pour le même utilisateur attendent ce même chargement.
+     */
+    private ActiveCart activeCart(String username) {
+        CompletableFuture<ActiveCart> created = new CompletableFuture<>();
+        CompletableFuture<ActiveCart> cart = loadingCarts.get(username, (key, executor) -> created);
+        if (cart == created) {
+            try {
+                created.complete(load(username));
+            } catch (RuntimeException e) {
+                // Un futur en échec est retiré du cache : l'appel suivant recharge
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return cart.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private ActiveCart load(String username) {
+        // Un panier évincé mais pas encore écrit est repris tel quel
+        ActiveCart pending = evicting.get(username);
+        if (pending != null) {
+            return pending;
+        }
+        return cartRepository.findById(username)
+                .map(row -> ActiveCart.decode(row.getItems()))
+                .orElseGet(ActiveCart::new);
+    }
+
+    private void requireProduct(Long productId) {
+        if (productId == null || productService.getProductById(productId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produit introuvable");
+        }
+    }
+
+    private void checkLine(LongIntHashMap items, int currentQuantity, int newQuantity) {
+        if (newQuantity > maxQuantity) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La quantité d'un produit est limitée à " + maxQuantity);
+        }
+        if (currentQuantity == 0 && newQuantity > 0 && items.size() >= maxItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Le panier ne peut pas contenir plus de " + maxItems + " produits différents");
+        }
+    }
+
+    /**
+     * Panier en mémoire. Tous les accès se font sous le verrou de l'instance.
+     */
+    private static final class ActiveCart {
+        private final LongIntHashMap items;
+        private long version;
+        private long persistedVersion;
+        // Vrai lorsque le panier a quitté le cache et ne doit plus être modifié
+        private boolean evicted;
+
+        private ActiveCart() {
+            this.items = new LongIntHashMap(8);
+        }
+
+        private boolean isDirty() {
+            return version != persistedVersion;
+        }
+
+        private long[] sortedProductIds() {
+            long[] productIds = new long[items.size()];
+            int[] index = {0};
+            items.forEach((productId, quantity) -> productIds[index[0]++] = productId);
+            Arrays.sort(productIds);
+            return productIds;
+        }
+
+        private byte[] encode() {
+            ByteBuffer buffer = ByteBuffer.allocate(items.size() * ENCODED_LINE_SIZE);
+            items.forEach((productId, quantity) -> buffer.putLong(productId).putInt(quantity));
+            return buffer.array();
+        }
+
+        private static ActiveCart decode(byte[] bytes) {
+            ActiveCart cart = new ActiveCart();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.remaining() >= ENCODED_LINE_SIZE) {
+                cart.items.put(buffer.getLong(), buffer.getInt());
+            }
+            return cart;
+        }
+    }
+
+    private static final class PendingWrite {
+        private final String username;
+        private final ActiveCart cart;
+        private final long version;
+        private final byte[] items;
+
+        private PendingWrite(String username, ActiveCart cart, long version, byte[] items) {
+            this.username = username;
+            this.cart = cart;
+            this.version = version;
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package com.shopease.backend.service;
+
+/**
+ * Instantané colonnaire du catalogue, en mémoire, pour le filtrage, le tri par prix
+ * et le comptage des facettes par catégorie.
+ * <p>
+ * Chaque produit occupe un emplacement (slot) dans des tableaux primitifs : identifiant,
+ * catégorie, prix en centimes (au lieu d'un {@code BigDecimal}) et stock. Un bitset par
+ * catégorie indique les emplacements qui lui appartiennent, et un tableau d'emplacements
+ * trié par (prix, id) est maintenu à jour par insertion. Une requête se résume ainsi à une
+ * boucle sur des tableaux, sans allocation d'objet par produit.
+ * </p>
+ * <p>
+ * L'instantané est chargé au démarrage puis mis à jour de façon incrémentale à partir des
+ * {@link ProductChangedEvent} publiés par {@link ProductService} et des lots
+ * {@link ProductsImportedEvent} de l'import en masse, traités après la validation de la
+ * transaction qui les publie.
+ * </p>
+ * <p>
+ * Le chargement construit de nouvelles colonnes hors verrou, pendant que les requêtes
+ * continuent d'être servies par les colonnes courantes (vides au démarrage). Les mises à jour
+ * reçues pendant la lecture sont appliquées aux colonnes courantes et notées ; elles sont
+ * rejouées sur les nouvelles colonnes juste avant l'échange de référence, sous le verrou
+ * d'écriture. Une variation de stock ne pouvant pas être rejouée sans savoir si la lecture
+ * l'a déjà vue, le stock des produits concernés est relu directement en base, sans le cache
+ * des produits, et hors verrou : un produit dont le stock varie encore pendant cette relecture
+ * est relu au tour suivant. Après {@value #MAX_RESTOCK_ROUNDS} tours, le reste est relu sous
+ * le verrou d'écriture.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.dto.ProductSummary;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.event.ProductChangedEvent;
+import com.shopease.backend.event.ProductsImportedEvent;
+import com.shopease.backend.event.StockChangedEvent;
+import com.shopease.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_CATEGORY = -1;
+    // Identifiants relus par requête lors de l'échange
+    private static final int RESTOCK_CHUNK_SIZE = 100;
+    // Relectures du stock hors verrou avant la dernière, faite sous verrou
+    private static final int MAX_RESTOCK_ROUNDS = 3;
+    private static final BigDecimal MAX_MINOR_UNITS = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_MINOR_UNITS = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    /**
+     * Critères d'une requête sur le catalogue ; les bornes de prix sont en centimes et
+     * {@code null} signifie « pas de filtre ».
+     */
+    public record Query(Long categoryId, Long minPrice, Long maxPrice, boolean inStockOnly,
+                        boolean descending, int offset, int limit) {
+    }
+
+    /**
+     * Résultat d'une requête : nombre total de produits retenus, identifiants de la page
+     * demandée dans l'ordre de tri, et nombre de produits par catégorie. Les facettes
+     * appliquent les filtres de prix et de stock mais pas celui de catégorie.
+     */
+    public record Result(int total, List<Long> ids, Map<Long, Integer> facets) {
+    }
+
+    /**
+     * État d'un produit dans l'instantané : catégorie ({@code null} si aucune), prix en
+     * centimes et stock.
+     */
+    public record ProductState(Long categoryId, long price, int stock) {
+    }
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Champs protégés par le verrou
+    private Columns columns = new Columns();
+    // Non nuls pendant un chargement : mises à jour à rejouer et produits dont le stock a varié
+    private List<Consumer<Columns>> replay;
+    private Set<Long> stockChanged;
+
+    public CatalogSnapshot(ProductService productService, ProductRepository productRepository) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Charge l'instantané à partir du catalogue complet, lu en flux hors verrou, puis trie par
+     * prix une seule fois et remplace les colonnes courantes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+            stockChanged = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns loaded = new Columns();
+        try {
+            productService.streamProducts(product -> {
+                if (!loaded.slotById.containsKey(product.getId())) {
+                    int slot = loaded.allocateSlot(product.getId());
+                    loaded.writeColumns(slot, product);
+                    loaded.appendToOrder(slot);
+                }
+            });
+            loaded.sortSlots(loaded.priceOrder, loaded.orderSize);
+
+            Map<Long, Integer> stocks = Map.of();
+            for (int round = 0; ; round++) {
+                List<Long> restock;
+                lock.writeLock().lock();
+                try {
+                    restock = catchUp(loaded, stocks);
+                    if (restock.isEmpty() || round == MAX_RESTOCK_ROUNDS) {
+                        // Variations continues : dernière relecture sous verrou
+                        catchUp(loaded, readStocks(restock));
+                        columns = loaded;
+                        replay = null;
+                        stockChanged = null;
+                        log.info("Instantané du catalogue chargé : {} produits, {} catégories en {} ms",
+                                loaded.slotById.size(), loaded.categoryBits.size(), System.currentTimeMillis() - start);
+                        return;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                stocks = readStocks(restock);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+                stockChanged = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reporte sur les colonnes en construction les stocks relus puis les mises à jour reçues
+     * depuis le tour précédent. À appeler sous le verrou d'écriture.
+     *
+     * @return les produits dont le stock a varié depuis le tour précédent, à relire
+     */
+    private List<Long> catchUp(Columns loaded, Map<Long, Integer> stocks) {
+        stocks.forEach((id, stock) -> {
+            Integer slot = loaded.slotById.get(id);
+            if (slot != null) {
+                loaded.stocks[slot] = stock;
+            }
+        });
+        replay.forEach(change -> change.accept(loaded));
+        replay.clear();
+        List<Long> restock = List.copyOf(stockChanged);
+        stockChanged.clear();
+        return restock;
+    }
+
+    /**
+     * Lit le stock validé des produits directement en base, sans passer par le cache des produits.
+     */
+    private Map<Long, Integer> readStocks(List<Long> ids) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += RESTOCK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + RESTOCK_CHUNK_SIZE, ids.size()));
+            for (ProductSummary summary : productRepository.findSummariesByIdIn(chunk)) {
+                stocks.put(summary.getId(), summary.getStock());
+            }
+        }
+        return stocks;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getProductId());
+        } else {
+            upsert(event.getProduct());
+        }
+    }
+
+    /**
+     * Applique une variation de stock validée ; l'ordre par prix n'est pas touché.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            columns.addStock(event.getProductId(), event.getDelta());
+            if (stockChanged != null) {
+                stockChanged.add(event.getProductId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Intègre un lot importé : les nouveaux emplacements sont triés entre eux puis fusionnés
+     * en une passe dans l'ordre par prix, au lieu d'être insérés un par un.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        List<Product> products = event.getProducts();
+        apply(target -> target.importAll(products));
+    }
+
+    /**
+     * Ajoute ou met à jour un produit dans l'instantané.
+     */
+    public void upsert(Product product) {
+        apply(target -> target.upsert(product));
+    }
+
+    /**
+     * Retire un produit de l'instantané.
+     */
+    public void remove(Long productId) {
+        apply(target -> target.remove(productId));
+    }
+
+    /**
+     * Retourne l'état d'un produit, ou {@code null} s'il n'est pas dans l'instantané.
+     */
+    public ProductState state(Long productId) {
+        lock.readLock().lock();
+        try {
+            return columns.state(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exécute une requête de filtrage, de tri par prix et de comptage des facettes.
+     */
+    public Result query(Query query) {
+        lock.readLock().lock();
+        try {
+            return columns.query(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Convertit un prix en centimes, borné à l'intervalle d'un {@code long} : un prix hors
+     * bornes est classé en tête ou en fin de l'ordre par prix au lieu de faire échouer la mise à jour.
+     */
+    public static long toMinorUnits(BigDecimal price) {
+        if (price == null) {
+            return 0L;
+        }
+        BigDecimal minorUnits = price.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        if (minorUnits.compareTo(MAX_MINOR_UNITS) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (minorUnits.compareTo(MIN_MINOR_UNITS) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return minorUnits.longValue();
+    }
+
+    /**
+     * Applique une mise à jour aux colonnes courantes et la note pour le chargement en cours.
+     */
+    private void apply(Consumer<Columns> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(columns);
+            if (replay != null) {
+                replay.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Colonnes de l'instantané. Non thread-safe : les colonnes publiées ne sont lues et
+     * modifiées que sous le verrou du {@link CatalogSnapshot}.
+     */
+    private static final class Columns {
+
+        // Colonnes, indexées par emplacement
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private int[] categoryOrdinals = new int[INITIAL_CAPACITY];
+        private long[] prices = new long[INITIAL_CAPACITY];
+        private int[] stocks = new int[INITIAL_CAPACITY];
+
+        /**
+         * Emplacements triés par (prix, id) ; seuls les {@code orderSize} premiers sont utilisés.
+         */
+        private int[] priceOrder = new int[INITIAL_CAPACITY];
+        private int orderSize;
+
+        /**
+         * Emplacements libérés par des suppressions, réutilisés en priorité.
+         */
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+        private int slotCount;
+
+        private final Map<Long, Integer> slotById = new HashMap<>();
+
+        // Catégories : identifiant ↔ ordinal dense, et un bitset d'emplacements par ordinal
+        private final Map<Long, Integer> categoryOrdinalById = new HashMap<>();
+        private long[] categoryIdByOrdinal = new long[16];
+        private final List<BitSet> categoryBits = new ArrayList<>();
+
+        private void upsert(Product product) {
+            Integer existing = slotById.get(product.getId());
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                removeFromOrder(slot);
+            } else {
+                slot = allocateSlot(product.getId());
+            }
+            writeColumns(slot, product);
+            insertIntoOrder(slot);
+        }
+
+        private void importAll(List<Product> products) {
+            int[] added = new int[products.size()];
+            int addedCount = 0;
+            for (Product product : products) {
+                Integer existing = slotById.get(product.getId());
+                if (existing != null) {
+                    removeFromOrder(existing);
+                    writeColumns(existing, product);
+                    insertIntoOrder(existing);
+                } else {
+                    int slot = allocateSlot(product.getId());
+                    writeColumns(slot, product);
+                    added[addedCount++] = slot;
+                }
+            }
+            sortSlots(added, addedCount);
+            mergeIntoOrder(added, addedCount);
+        }
+
+        private void remove(Long productId) {
+            Integer slot = slotById.remove(productId);
+            if (slot == null) {
+                return;
+            }
+            removeFromOrder(slot);
+            setCategory(slot, NO_CATEGORY);
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+
+        private void addStock(Long productId, int delta) {
+            Integer slot = slotById.get(productId);
+            if (slot != null) {
+                stocks[slot] += delta;
+            }
+        }
+
+        private ProductState state(Long productId) {
+            Integer slot = slotById.get(productId);
+            if (slot == null) {
+                return null;
+            }
+            int ordinal = categoryOrdinals[slot];
+            return new ProductState(ordinal == NO_CATEGORY ? null : categoryIdByOrdinal[ordinal],
+                    prices[slot], stocks[slot]);
+        }
+
+        private Result query(Query query) {
+            // La plage de prix est résolue par recherche dichotomique dans l'ordre trié
+            int from = query.minPrice() == null ? 0 : lowerBound(query.minPrice());
+            int to = query.maxPrice() == null ? orderSize : upperBound(query.maxPrice());
+
+            BitSet categoryFilter = null;
+            if (query.categoryId() != null) {
+                Integer ordinal = categoryOrdinalById.get(query.categoryId());
+                categoryFilter = ordinal == null ? new BitSet() : categoryBits.get(ordinal);
+            }
+
+            int[] facetCounts = new int[categoryBits.size()];
+            long[] page = new long[Math.max(0, query.limit())];
+            int pageSize = 0;
+            int total = 0;
+            boolean inStockOnly = query.inStockOnly();
+
+            for (int n = from; n < to; n++) {
+                int slot = priceOrder[query.descending() ? to - 1 - (n - from) : n];
+                if (inStockOnly && stocks[slot] <= 0) {
+                    continue;
+                }
+                int ordinal = categoryOrdinals[slot];
+                if (ordinal != NO_CATEGORY) {
+                    facetCounts[ordinal]++;
+                }
+                if (categoryFilter != null && !categoryFilter.get(slot)) {
+                    continue;
+                }
+                if (total >= query.offset() && pageSize < page.length) {
+                    page[pageSize++] = ids[slot];
+                }
+                total++;
+            }
+
+            Map<Long, Integer> facets = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < facetCounts.length; ordinal++) {
+                if (facetCounts[ordinal] > 0) {
+                    facets.put(categoryIdByOrdinal[ordinal], facetCounts[ordinal]);
+                }
+            }
+            return new Result(total, Arrays.stream(page, 0, pageSize).boxed().toList(), facets);
+        }
+
+        private int allocateSlot(long productId) {
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                slot = slotCount++;
+                if (slot == ids.length) {
+                    int capacity = ids.length * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    categoryOrdinals = Arrays.copyOf(categoryOrdinals, capacity);
+                    prices = Arrays.copyOf(prices, capacity);
+                    stocks = Arrays.copyOf(stocks, capacity);
+                    priceOrder = Arrays.copyOf(priceOrder, capacity);
+                }
+            }
+            ids[slot] = productId;
+            categoryOrdinals[slot] = NO_CATEGORY;
+            slotById.put(productId, slot);
+            return slot;
+        }
+
+        private void writeColumns(int slot, Product product) {
+            prices[slot] = toMinorUnits(product.getPrice());
+            stocks[slot] = product.getStock();
+            Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+            setCategory(slot, categoryId == null ? NO_CATEGORY : categoryOrdinal(categoryId));
+        }
+
+        private void setCategory(int slot, int ordinal) {
+            int previous = categoryOrdinals[slot];
+            if (previous != NO_CATEGORY) {
+                categoryBits.get(previous).clear(slot);
+            }
+            categoryOrdinals[slot] = ordinal;
+            if (ordinal != NO_CATEGORY) {
+                categoryBits.get(ordinal).set(slot);
+            }
+        }
+
+        private int categoryOrdinal(long categoryId) {
+            return categoryOrdinalById.computeIfAbsent(categoryId, id -> {
+                int ordinal = categoryBits.size();
+                if (ordinal == categoryIdByOrdinal.length) {
+                    categoryIdByOrdinal = Arrays.copyOf(categoryIdByOrdinal, ordinal * 2);
+                }
+                categoryIdByOrdinal[ordinal] = id;
+                categoryBits.add(new BitSet());
+                return ordinal;
+            });
+        }
+
+        private void appendToOrder(int slot) {
+            priceOrder[orderSize++] = slot;
+        }
+
+        /**
+         * Trie les {@code length} premiers emplacements du tableau par (prix, id), par un tri
+         * fusion ascendant sur des {@code int} : ni boxing ni comparateur alloué.
+         */
+        private void sortSlots(int[] slots, int length) {
+            int[] source = slots;
+            int[] target = new int[length];
+            for (int width = 1; width < length; width *= 2) {
+                for (int low = 0; low < length; low += 2 * width) {
+                    int middle = Math.min(low + width, length);
+                    int high = Math.min(low + 2 * width, length);
+                    int i = low;
+                    int j = middle;
+                    for (int k = low; k < high; k++) {
+                        target[k] = i < middle && (j >= high || compareSlots(source[i], source[j]) <= 0)
+                                ? source[i++] : source[j++];
+                    }
+                }
+                int[] swap = source;
+                source = target;
+                target = swap;
+            }
+            if (source != slots) {
+                System.arraycopy(source, 0, slots, 0, length);
+            }
+        }
+
+        /**
+         * Fusionne des emplacements déjà triés dans l'ordre par prix, en partant de la fin
+         * pour travailler en place (la capacité de {@code priceOrder} suit celle des colonnes).
+         */
+        private void mergeIntoOrder(int[] sorted, int count) {
+            int i = orderSize - 1;
+            int j = count - 1;
+            int k = orderSize + count - 1;
+            while (j >= 0) {
+                if (i >= 0 && compareSlots(priceOrder[i], sorted[j]) > 0) {
+                    priceOrder[k--] = priceOrder[i--];
+                } else {
+                    priceOrder[k--] = sorted[j--];
+                }
+            }
+            orderSize += count;
+        }
+
+        private void insertIntoOrder(int slot) {
+            int position = searchOrder(prices[slot], ids[slot]);
+            System.arraycopy(priceOrder, position, priceOrder, position + 1, orderSize - position);
+            priceOrder[position] = slot;
+            orderSize++;
+        }
+
+        private void removeFromOrder(int slot) {
+            int position = searchOrder(prices[slot], ids[slot]);
+            if (position < orderSize && priceOrder[position] == slot) {
+                System.arraycopy(priceOrder, position + 1, priceOrder, position, orderSize - position - 1);
+                orderSize--;
+            }
+        }
+
+        /**
+         * Position du premier emplacement dont le couple (prix, id) est supérieur ou égal à celui donné.
+         */
+        private int searchOrder(long price, long id) {
+            int low = 0;
+            int high = orderSize;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int slot = priceOrder[mid];
+                int cmp = prices[slot] != price ? Long.compare(prices[slot], price) : Long.compare(ids[slot], id);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Position du premier emplacement dont le prix est supérieur ou égal à {@code price}.
+         */
+        private int lowerBound(long price) {
+            return searchOrder(price, Long.MIN_VALUE);
+        }
+
+        /**
+         * Position du premier emplacement dont le prix est strictement supérieur à {@code price}.
+         */
+        private int upperBound(long price) {
+            return price == Long.MAX_VALUE ? orderSize : searchOrder(price + 1, Long.MIN_VALUE);
+        }
+
+        private int compareSlots(int a, int b) {
+            int cmp = Long.compare(prices[a], prices[b]);
+            return cmp != 0 ? cmp : Long.compare(ids[a], ids[b]);
+        }
+    }
+}
@@ -1,35 +1,91 @@
 package com.shopease.backend.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopease.backend.config.MetricsConfig;
+import com.shopease.backend.config.WebConfig;
+import com.shopease.backend.dto.CategorySummary;
 import com.shopease.backend.entity.Category;
 import com.shopease.backend.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class CategoryService {
 
     private final CategoryRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
 
-    public CategoryService(CategoryRepository repository) {
+    /**
+     * Instantané courant, remplacé en bloc après chaque écriture.
+     */
+    private volatile CategorySnapshot snapshot;
+
+    /**
+     * Sérialise les reconstructions. Un verrou explicite plutôt que {@code synchronized} :
+     * la relecture en base ne bloque pas le thread porteur d'un thread virtuel.
+     */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public CategoryService(CategoryRepository repository, ObjectMapper objectMapper,
+                           Jackson2ObjectMapperBuilder objectMapperBuilder) {
         this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.cborMapper = WebConfig.cborMapper(objectMapperBuilder);
+    }
+
+    /**
+     * Retourne l'instantané courant des catégories, construit au premier appel.
+     */
+    public CategorySnapshot getSnapshot() {
+        CategorySnapshot current = snapshot;
+        return current != null ? current : rebuildSnapshot();
     }
 
-    public List<Category> getAll() {
-        return repository.findAll();
+    public List<CategorySummary> getAll() {
+        return getSnapshot().getCategories();
     }
 
-    public Optional<Category> getById(Long id) {
-        return repository.findById(id);
+    public Optional<CategorySummary> getById(Long id) {
+        return Optional.ofNullable(getSnapshot().get(id));
     }
 
     public Category save(Category category) {
-        return repository.save(category);
+        Category saved = repository.save(category);
+        rebuildSnapshot();
+        return saved;
     }
 
     public void delete(Long id) {
         repository.deleteById(id);
+        rebuildSnapshot();
     }
-}
 
+    /**
+     * Relit les catégories et publie un nouvel instantané.
+     * Les reconstructions sont sérialisées pour qu'une écriture récente ne soit jamais
+     * écrasée par un instantané construit avant elle.
+     */
+    private CategorySnapshot rebuildSnapshot() {
+        rebuildLock.lock();
+        try {
+            List<CategorySummary> categories = repository.findAllSummaries();
+            byte[] json = objectMapper.writeValueAsBytes(categories);
+            byte[] cbor = cborMapper.writeValueAsBytes(categories);
+            long version = snapshot == null ? 1 : snapshot.getVersion() + 1;
+            snapshot = new CategorySnapshot(version, categories, json, cbor);
+            return snapshot;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser les catégories", e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
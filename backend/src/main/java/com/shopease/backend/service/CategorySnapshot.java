@@ -0,0 +1,76 @@
+package com.shopease.backend.service;
+
+/**
+ * Instantané immuable et versionné de la liste des catégories.
+ *
+ * Il contient les catégories (projections, pas des entités), un index par identifiant, les représentations
+ * JSON et CBOR déjà sérialisées et l'ETag fort de chacune. Un nouvel instantané
+ * est construit à chaque écriture ; les lectures ne touchent ni la base ni Jackson.
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.dto.CategorySummary;
+import org.springframework.util.DigestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CategorySnapshot {
+    private final long version;
+    private final List<CategorySummary> categories;
+    private final Map<Long, CategorySummary> byId;
+    private final byte[] json;
+    private final String etag;
+    private final byte[] cbor;
+    private final String cborEtag;
+
+    CategorySnapshot(long version, List<CategorySummary> categories, byte[] json, byte[] cbor) {
+        this.version = version;
+        this.categories = List.copyOf(categories);
+        Map<Long, CategorySummary> index = new LinkedHashMap<>();
+        for (CategorySummary category : categories) {
+            index.put(category.getId(), category);
+        }
+        this.byId = Map.copyOf(index);
+        this.json = json;
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        this.cbor = cbor;
+        this.cborEtag = "\"" + DigestUtils.md5DigestAsHex(cbor) + "\"";
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<CategorySummary> getCategories() {
+        return categories;
+    }
+
+    public CategorySummary get(Long id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * Retourne le JSON pré-sérialisé de la liste ; le tableau ne doit pas être modifié.
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Retourne le CBOR pré-sérialisé de la liste ; le tableau ne doit pas être modifié.
+     */
+    public byte[] getCbor() {
+        return cbor;
+    }
+
+    public String getCborEtag() {
+        return cborEtag;
+    }
+}
@@ -0,0 +1,385 @@
+package com.shopease.backend.service;
+
+/**
+ * Pipeline de passage de commande par micro-lots (« group commit »).
+ * <p>
+ * Les commandes soumises sont placées dans une file bornée et traitées par un thread unique :
+ * à chaque tour, il prend toutes les commandes en attente (dans la limite de la taille de lot)
+ * et les traite dans une seule transaction. Les réservations en attente des clients du lot,
+ * puis les produits du lot, sont chargés et verrouillés en une requête chacun, dans l'ordre
+ * des identifiants ; chaque commande est ensuite validée et tarifée à partir de
+ * {@code Product.price}. Les commandes et leurs lignes partent en lots JDBC à la validation.
+ * </p>
+ * <p>
+ * Le stock suit le même mécanisme que {@link StockService} : une ligne consomme d'abord les
+ * réservations en attente du client sur ce produit (leurs unités sont déjà retirées du stock),
+ * et seul le reste est décrémenté par l'{@code UPDATE} conditionnel
+ * {@link ProductRepository#decrementStock}. Une réservation n'est consommée que si elle tient
+ * entièrement dans la quantité commandée.
+ * </p>
+ * <p>
+ * Aucun délai artificiel n'est ajouté : sous faible charge un lot ne contient qu'une commande,
+ * et il grossit naturellement avec la charge, ce qui amortit les allers-retours vers la base.
+ * Une commande refusée (stock insuffisant, produit inconnu) n'affecte pas les autres commandes
+ * du lot ; si la base refuse le lot entier, chaque commande est rejouée seule.
+ * </p>
+ * <p>
+ * Le thread du pipeline suit le cycle de vie du contexte : il démarre avant le serveur web et
+ * s'arrête après lui, une fois les requêtes en cours terminées.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.config.CacheConfig;
+import com.shopease.backend.dto.CheckoutRequest;
+import com.shopease.backend.entity.Order;
+import com.shopease.backend.entity.OrderLine;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.entity.StockReservation;
+import com.shopease.backend.entity.User;
+import com.shopease.backend.enums.OrderStatus;
+import com.shopease.backend.enums.ReservationStatus;
+import com.shopease.backend.event.StockChangedEvent;
+import com.shopease.backend.exception.InsufficientStockException;
+import com.shopease.backend.exception.ServiceUnavailableException;
+import com.shopease.backend.repository.ProductRepository;
+import com.shopease.backend.repository.StockReservationRepository;
+import com.shopease.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class CheckoutBatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutBatcher.class);
+
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final StockReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache productCache;
+    private final BlockingQueue<PendingCheckout> queue;
+    private final int maxBatchSize;
+    private final long retryAfterSeconds;
+
+    private Thread worker;
+    private volatile boolean running;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param maxBatchSize      le nombre maximal de commandes traitées dans une même transaction
+     * @param queueCapacity     le nombre maximal de commandes en attente avant rejet
+     * @param retryAfterSeconds le délai suggéré au client lorsqu'une commande est rejetée
+     */
+    public CheckoutBatcher(ProductRepository productRepository,
+                           UserRepository userRepository,
+                           StockReservationRepository reservationRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           CacheManager cacheManager,
+                           @Value("${shopease.orders.batch.max-size:64}") int maxBatchSize,
+                           @Value("${shopease.orders.queue-capacity:10000}") int queueCapacity,
+                           @Value("${shopease.orders.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.reservationRepository = reservationRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "checkout-batcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Arrête le pipeline : le lot en cours est terminé, les commandes encore en file sont rejetées.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingCheckout pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(
+                    new ServiceUnavailableException("Service de commande arrêté", retryAfterSeconds));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Démarre avant le serveur web et s'arrête après son arrêt gracieux.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    /**
+     * Place une commande dans la file du pipeline.
+     *
+     * @param username l'utilisateur qui passe la commande
+     * @param items    les lignes demandées, déjà contrôlées sur leur forme
+     * @return le futur contenant la commande enregistrée, ou l'erreur qui l'a refusée
+     * @throws ServiceUnavailableException si la file est pleine
+     */
+    public CompletableFuture<Order> submit(String username, List<CheckoutRequest.Item> items) {
+        PendingCheckout pending = new PendingCheckout(username, items);
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceUnavailableException("Trop de commandes en attente, veuillez réessayer", retryAfterSeconds);
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        List<PendingCheckout> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingCheckout first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                // Filet de sécurité : le thread du pipeline ne doit jamais s'arrêter
+                log.error("Erreur inattendue dans le pipeline de commande", e);
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Traite un lot dans une transaction, puis complète les futurs une fois la transaction validée.
+     */
+    private void process(List<PendingCheckout> batch) {
+        BatchResult result;
+        try {
+            result = transactionTemplate.execute(status -> placeAll(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            // Lot refusé par la base : chaque commande est rejouée seule pour n'écarter que la fautive
+            log.warn("Lot de {} commandes refusé, rejeu commande par commande : {}", batch.size(), e.getMessage());
+            for (PendingCheckout pending : batch) {
+                process(List.of(pending));
+            }
+            return;
+        }
+        log.debug("Lot de {} commande(s) traité en une transaction", batch.size());
+
+        result.stockDeltas.forEach((productId, delta) -> {
+            productCache.evict(productId);
+            eventPublisher.publishEvent(new StockChangedEvent(productId, delta));
+        });
+        for (int i = 0; i < batch.size(); i++) {
+            Object outcome = result.outcomes.get(i);
+            if (outcome instanceof Order order) {
+                batch.get(i).future.complete(order);
+            } else {
+                batch.get(i).future.completeExceptionally((RuntimeException) outcome);
+            }
+        }
+    }
+
+    /**
+     * Corps transactionnel d'un lot : chargement groupé, puis validation, tarification et
+     * prélèvement du stock commande par commande. Les réservations sont verrouillées avant les
+     * produits, dans le même ordre que la libération d'une réservation.
+     */
+    private BatchResult placeAll(List<PendingCheckout> batch) {
+        Set<Long> productIds = new TreeSet<>();
+        Set<String> usernames = new TreeSet<>();
+        for (PendingCheckout pending : batch) {
+            usernames.add(pending.username);
+            pending.items.forEach(item -> productIds.add(item.getProductId()));
+        }
+        Instant now = Instant.now();
+        Map<String, Map<Long, List<StockReservation>>> reservations = new HashMap<>();
+        for (StockReservation reservation : reservationRepository.findPendingForUpdate(usernames, productIds, now)) {
+            reservations.computeIfAbsent(reservation.getUsername(), username -> new HashMap<>())
+                    .computeIfAbsent(reservation.getProductId(), productId -> new ArrayList<>())
+                    .add(reservation);
+        }
+        Map<Long, Product> products = productRepository.findAllByIdForUpdate(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<String, User> users = userRepository.findByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(User::getUsername, Function.identity()));
+
+        BatchResult result = new BatchResult();
+        // Stock disponible suivi en mémoire : les lignes sont verrouillées et les UPDATE
+        // conditionnels ne mettent pas à jour les entités chargées
+        Map<Long, Integer> available = new HashMap<>();
+        products.values().forEach(product -> available.put(product.getId(), product.getStock()));
+        for (PendingCheckout pending : batch) {
+            try {
+                Order order = place(pending, users, products, reservations, available, result.stockDeltas, now);
+                result.outcomes.add(order);
+            } catch (InsufficientStockException | ResponseStatusException e) {
+                result.outcomes.add(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Valide une commande contre l'état courant du lot, puis l'enregistre. Rien n'est modifié
+     * tant que toutes les lignes n'ont pas été validées : un refus laisse le lot intact.
+     * Seules les unités prélevées sur le stock sont ajoutées à {@code stockDeltas}.
+     */
+    private Order place(PendingCheckout pending, Map<String, User> users, Map<Long, Product> products,
+                        Map<String, Map<Long, List<StockReservation>>> reservations, Map<Long, Integer> available,
+                        Map<Long, Integer> stockDeltas, Instant now) {
+        User user = users.get(pending.username);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Utilisateur introuvable");
+        }
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        pending.items.forEach(item -> requested.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        Map<Long, List<StockReservation>> userReservations = reservations.getOrDefault(pending.username, Map.of());
+        Map<Long, List<StockReservation>> consumed = new HashMap<>();
+        Map<Long, Integer> fromStock = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Long productId = entry.getKey();
+            if (!products.containsKey(productId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produit introuvable : " + productId);
+            }
+            int remaining = entry.getValue();
+            List<StockReservation> used = new ArrayList<>();
+            for (StockReservation reservation : userReservations.getOrDefault(productId, List.of())) {
+                if (reservation.getQuantity() <= remaining) {
+                    used.add(reservation);
+                    remaining -= reservation.getQuantity();
+                }
+            }
+            if (available.get(productId) < remaining) {
+                throw new InsufficientStockException(productId, entry.getValue());
+            }
+            consumed.put(productId, used);
+            fromStock.put(productId, remaining);
+        }
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setCreatedAt(now);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Product product = products.get(entry.getKey());
+            int quantity = entry.getValue();
+            takeStock(product.getId(), consumed.get(product.getId()), fromStock.get(product.getId()),
+                    userReservations, available, stockDeltas);
+
+            OrderLine line = new OrderLine();
+            line.setProduct(product);
+            line.setProductName(product.getName());
+            line.setQuantity(quantity);
+            line.setUnitPrice(product.getPrice());
+            line.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+            order.addLine(line);
+            total = total.add(line.getLineTotal());
+        }
+        order.setTotal(total);
+        entityManager.persist(order);
+        return order;
+    }
+
+    /**
+     * Prélève une ligne validée : les réservations consommées passent à l'état confirmé (entités
+     * verrouillées, écrites au flush) et le reste est décrémenté par l'UPDATE conditionnel.
+     */
+    private void takeStock(Long productId, List<StockReservation> used, int fromStock,
+                           Map<Long, List<StockReservation>> userReservations,
+                           Map<Long, Integer> available, Map<Long, Integer> stockDeltas) {
+        if (!used.isEmpty()) {
+            used.forEach(reservation -> reservation.setStatus(ReservationStatus.COMMITTED));
+            // Une réservation consommée ne peut plus servir à une autre commande du lot
+            userReservations.get(productId).removeAll(used);
+        }
+        if (fromStock == 0) {
+            return;
+        }
+        if (productRepository.decrementStock(productId, fromStock) == 0) {
+            // Impossible sous verrou : le lot est annulé puis rejoué commande par commande
+            throw new IllegalStateException("Stock modifié hors verrou pour le produit " + productId);
+        }
+        available.merge(productId, -fromStock, Integer::sum);
+        stockDeltas.merge(productId, -fromStock, Integer::sum);
+    }
+
+    private static final class PendingCheckout {
+        private final String username;
+        private final List<CheckoutRequest.Item> items;
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+
+        private PendingCheckout(String username, List<CheckoutRequest.Item> items) {
+            this.username = username;
+            this.items = items;
+        }
+    }
+
+    /**
+     * Résultat d'un lot : pour chaque commande, dans l'ordre du lot, la commande enregistrée
+     * ou l'exception qui l'a refusée ; et la variation de stock cumulée par produit.
+     */
+    private static final class BatchResult {
+        private final List<Object> outcomes = new ArrayList<>();
+        private final Map<Long, Integer> stockDeltas = new HashMap<>();
+    }
+}
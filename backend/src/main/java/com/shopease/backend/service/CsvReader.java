@@ -0,0 +1,115 @@
+package com.shopease.backend.service;
+
+/**
+ * Lecteur CSV incrémental (RFC 4180) : lit un enregistrement à la fois depuis un flux,
+ * sans charger le fichier en mémoire.
+ *
+ * Gère les champs entre guillemets, les guillemets doublés et les retours à la ligne
+ * à l'intérieur d'un champ. Le numéro de ligne de début de chaque enregistrement est
+ * conservé pour signaler les erreurs. Un fichier mal formé est une erreur du client (400),
+ * distincte d'une erreur de lecture du flux.
+ *
+ * @author Fadhel Smari
+ */
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+class CsvReader {
+
+    private final Reader reader;
+    private final char separator;
+    private int line = 1;
+    private int recordLine;
+    private int pushedBack = -2;
+
+    CsvReader(Reader reader, char separator) {
+        this.reader = reader;
+        this.separator = separator;
+    }
+
+    /**
+     * Lit l'enregistrement suivant.
+     *
+     * @return les champs de l'enregistrement, ou {@code null} à la fin du flux
+     * @throws IOException             en cas d'erreur de lecture
+     * @throws ResponseStatusException 400 en cas de guillemet non fermé
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        // Ignore les lignes vides entre les enregistrements
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Guillemet non fermé dans l'enregistrement de la ligne " + recordLine);
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        pushedBack = following;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Numéro de la ligne où commence le dernier enregistrement lu.
+     */
+    int getRecordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack != -2) {
+            c = pushedBack;
+            pushedBack = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
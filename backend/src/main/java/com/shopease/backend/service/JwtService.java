@@ -7,19 +7,39 @@ package com.shopease.backend.service;
  * Ce service utilise la bibliothèque JJWT pour signer et analyser les JSON Web Tokens (JWT),
  * en s'appuyant sur une clé secrète codée en HMAC-SHA256.
  * </p>
+ * <p>
+ * La clé et le parseur sont construits une seule fois. Les tokens déjà vérifiés sont conservés,
+ * avec leurs claims, dans un cache borné dont chaque entrée expire à l'instant {@code exp} du token :
+ * les requêtes suivantes d'un même client évitent la vérification HMAC et l'analyse des claims.
+ * </p>
+ * <p>
+ * Métriques : signature ({@code shopease.jwt.sign}), vérification d'un token absent du cache
+ * ({@code shopease.jwt.verify}) et statistiques du cache ({@code cache.*}, cache {@code jwtVerifiedTokens}).
+ * </p>
  *
  * @author Fadhel Smari
  */
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.shopease.backend.config.MetricsConfig;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-import java.security.Key;
+import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class JwtService {
 
     /**
@@ -32,12 +52,62 @@ public class JwtService {
     private final String SECRET_KEY = "monsupersecretjwtclé256bitssecuremonsupersecretjwtclé256bitssecure"; // ≥ 256 bits
 
     /**
-     * Génère une clé de signature HMAC à partir de la chaîne secrète.
+     * Clé de signature HMAC dérivée une seule fois de la chaîne secrète.
+     */
+    private final SecretKey signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+
+    /**
+     * Parseur pré-construit (thread-safe) qui vérifie la signature et l'expiration.
+     */
+    private final JwtParser parser = Jwts.parser().verifyWith(signingKey).build();
+
+    /**
+     * Tokens déjà vérifiés et leurs claims ; chaque entrée expire avec son token.
+     */
+    private final Cache<String, Claims> verifiedTokens;
+
+    private final Timer signTimer;
+    private final Timer verifyTimer;
+
+    public JwtService(MeterRegistry meterRegistry,
+                      @Value("${shopease.jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
+        this.signTimer = Timer.builder("shopease.jwt.sign")
+                .description("Signature d'un token JWT")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("shopease.jwt.verify")
+                .description("Vérification HMAC et analyse d'un token absent du cache")
+                .register(meterRegistry);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens");
+    }
+
+    /**
+     * Retourne la clé de signature HMAC.
      *
-     * @return une instance {@link Key} pour signer les tokens.
+     * @return une instance {@link SecretKey} pour signer les tokens.
      */
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private SecretKey getSigningKey() {
+        return signingKey;
     }
 
     /**
@@ -47,12 +117,12 @@ public class JwtService {
      * @return une chaîne JWT signée.
      */
     public String generateToken(String username) {
-        return Jwts.builder()
+        return signTimer.record(() -> Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .compact());
     }
 
     /**
@@ -60,11 +130,11 @@ public class JwtService {
      *
      * @param token le token JWT à valider.
      * @param userDetails les informations de l'utilisateur authentifié.
-     * @return {@code true} si le token est valide, {@code false} sinon.
+     * @return {@code true} si le token est valide et non expiré, {@code false} sinon.
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
-        return (username != null && username.equals(userDetails.getUsername()));
+        return (username != null && username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
     /**
@@ -86,12 +156,32 @@ public class JwtService {
      * @return la valeur extraite du claim.
      */
     public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return resolver.apply(claims);
+        return resolver.apply(verifyToken(token));
+    }
+
+    /**
+     * Vérifie la signature et l'expiration du token et retourne ses claims.
+     * Un token déjà vérifié et non expiré est servi depuis le cache sans nouveau calcul HMAC.
+     *
+     * @param token le token JWT à vérifier.
+     * @return les claims du token.
+     * @throws JwtException si le token est invalide, expiré ou sans date d'expiration.
+     */
+    public Claims verifyToken(String token) {
+        return verifiedTokens.get(token, this::parseClaims);
+    }
+
+    /**
+     * Analyse et vérifie le token avec le parseur pré-construit.
+     */
+    private Claims parseClaims(String token) {
+        return verifyTimer.record(() -> {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() == null) {
+                throw new MalformedJwtException("Le token ne contient pas de date d'expiration");
+            }
+            return claims;
+        });
     }
 
     /**
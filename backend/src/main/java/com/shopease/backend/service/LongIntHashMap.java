@@ -0,0 +1,162 @@
+package com.shopease.backend.service;
+
+/**
+ * Table de hachage à adressage ouvert de clés {@code long} vers des valeurs {@code int},
+ * sans objets intermédiaires : deux tableaux primitifs, sondage linéaire et suppression par
+ * décalage arrière (pas de marqueurs de suppression). Une entrée occupe 12 octets.
+ * <p>
+ * La clé {@code 0} est réservée pour marquer les cases vides. La classe n'est pas
+ * thread-safe : l'appelant synchronise les accès.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import java.util.Arrays;
+
+final class LongIntHashMap {
+
+    /**
+     * Reçoit les entrées lors d'un parcours.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    private int shift;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 4 / 3 + 1) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Retourne la valeur associée à la clé, ou 0 si la clé est absente.
+     */
+    int get(long key) {
+        int slot = find(key);
+        return slot < 0 ? 0 : values[slot];
+    }
+
+    /**
+     * Associe une valeur à la clé ; une valeur 0 retire la clé.
+     */
+    void put(long key, int value) {
+        checkKey(key);
+        if (value == 0) {
+            remove(key);
+            return;
+        }
+        int slot = hash(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) * 3 / 4) {
+            rehash((mask + 1) << 1);
+        }
+    }
+
+    /**
+     * Retire la clé. Les entrées qui suivent dans la même séquence de sondage sont
+     * redescendues pour combler le trou.
+     */
+    void remove(long key) {
+        int gap = find(key);
+        if (gap < 0) {
+            return;
+        }
+        int slot = (gap + 1) & mask;
+        while (keys[slot] != EMPTY) {
+            int ideal = hash(keys[slot]);
+            // L'entrée peut combler le trou si celui-ci se trouve entre sa position idéale et sa position actuelle
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0;
+        size--;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int slot = hash(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int hash(long key) {
+        // Hachage multiplicatif de Fibonacci : les identifiants consécutifs sont bien dispersés
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = hash(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("La clé 0 est réservée");
+        }
+    }
+}
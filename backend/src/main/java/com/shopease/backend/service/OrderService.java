@@ -0,0 +1,98 @@
+package com.shopease.backend.service;
+
+/**
+ * Service de gestion des commandes.
+ * <p>
+ * Le passage de commande contrôle la forme de la demande, regroupe les lignes d'un même
+ * produit en bornant leur total à la quantité maximale du panier, puis la confie au pipeline
+ * {@link CheckoutBatcher}, qui la valide, la tarife, décrémente le stock et l'enregistre
+ * avec les autres commandes de son micro-lot.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.dto.CheckoutRequest;
+import com.shopease.backend.entity.Order;
+import com.shopease.backend.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class OrderService {
+
+    private final OrderRepository orderRepository;
+    private final CheckoutBatcher checkoutBatcher;
+    private final int maxItems;
+    private final int maxQuantity;
+
+    /**
+     * @param maxItems    le nombre maximal de lignes d'une commande
+     * @param maxQuantity la quantité maximale d'un même produit, comme dans le panier
+     */
+    public OrderService(OrderRepository orderRepository,
+                        CheckoutBatcher checkoutBatcher,
+                        @Value("${shopease.orders.max-items:100}") int maxItems,
+                        @Value("${shopease.cart.max-quantity:999}") int maxQuantity) {
+        this.orderRepository = orderRepository;
+        this.checkoutBatcher = checkoutBatcher;
+        this.maxItems = maxItems;
+        this.maxQuantity = maxQuantity;
+    }
+
+    /**
+     * Passe une commande pour un utilisateur.
+     *
+     * @param username l'utilisateur authentifié
+     * @param request  les produits et quantités demandés
+     * @return le futur contenant la commande confirmée
+     * @throws ResponseStatusException 400 si la demande est vide ou mal formée, ou si la quantité
+     *                                 totale d'un produit dépasse {@code shopease.cart.max-quantity}
+     */
+    public CompletableFuture<Order> placeOrder(String username, CheckoutRequest request) {
+        List<CheckoutRequest.Item> items = request.getItems();
+        if (items == null || items.isEmpty() || items.size() > maxItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La commande doit contenir entre 1 et " + maxItems + " lignes");
+        }
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CheckoutRequest.Item item : items) {
+            if (item == null || item.getProductId() == null || item.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Chaque ligne doit indiquer un produit et une quantité positive");
+            }
+            // Comparaison avant l'addition : deux lignes proches de Integer.MAX_VALUE ne débordent pas
+            int current = quantities.getOrDefault(item.getProductId(), 0);
+            if (item.getQuantity() > maxQuantity - current) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "La quantité d'un produit est limitée à " + maxQuantity);
+            }
+            quantities.put(item.getProductId(), current + item.getQuantity());
+        }
+        List<CheckoutRequest.Item> merged = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            CheckoutRequest.Item item = new CheckoutRequest.Item();
+            item.setProductId(productId);
+            item.setQuantity(quantity);
+            merged.add(item);
+        });
+        return checkoutBatcher.submit(username, List.copyOf(merged));
+    }
+
+    /**
+     * Retourne les commandes d'un utilisateur avec leurs lignes, des plus récentes aux plus anciennes.
+     */
+    @Transactional(readOnly = true)
+    public List<Order> getOrdersForUser(String username) {
+        return orderRepository.findByUsernameWithLines(username);
+    }
+}
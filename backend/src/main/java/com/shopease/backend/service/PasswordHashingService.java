@@ -0,0 +1,169 @@
+package com.shopease.backend.service;
+
+/**
+ * Service qui exécute les calculs BCrypt (encodage et vérification des mots de passe)
+ * sur un pool de threads dédié, en dehors des threads de requête de Tomcat.
+ * <p>
+ * Le pool a un nombre fixe de threads (budget CPU) et une file d'attente bornée :
+ * lorsqu'elle est pleine, la requête est rejetée immédiatement avec une
+ * {@link ServiceUnavailableException} (HTTP 503 + {@code Retry-After}), de sorte
+ * qu'un pic de connexions ne puisse pas affamer le reste de l'API.
+ * </p>
+ * <p>
+ * Les futurs retournés se terminent sur un second pool ({@code auth-completion-}) : les suites
+ * enchaînées par l'appelant (accès à la base, signature du JWT) ne s'exécutent jamais sur les
+ * threads de hachage, dont le nombre est calé sur le budget CPU et non sur le pool de connexions.
+ * </p>
+ * <p>
+ * Métriques : durée de calcul ({@code shopease.auth.hashing}, étiquetée par opération),
+ * attente dans la file ({@code shopease.auth.hashing.queue.wait}), taille de la file et
+ * nombre de rejets.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+public class PasswordHashingService implements DisposableBean {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor completionExecutor;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param passwordEncoder   l'encodeur BCrypt configuré dans SecurityConfig
+     * @param strength          le coût BCrypt configuré
+     * @param threads           le nombre de threads de hachage (0 = la moitié des processeurs)
+     * @param queueCapacity     le nombre maximal de calculs en attente avant rejet
+     * @param retryAfterSeconds le délai suggéré au client lorsqu'une requête est rejetée
+     * @param completionThreads le nombre de threads qui exécutent les suites des calculs
+     */
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${shopease.auth.bcrypt.strength:10}") int strength,
+                                  @Value("${shopease.auth.hashing.threads:0}") int threads,
+                                  @Value("${shopease.auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${shopease.auth.hashing.retry-after-seconds:1}") long retryAfterSeconds,
+                                  @Value("${shopease.auth.hashing.completion-threads:8}") int completionThreads) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // File non bornée en apparence seulement : chaque suite provient d'un calcul admis par le
+        // pool de hachage, dont la file est bornée
+        this.completionExecutor = new ThreadPoolExecutor(completionThreads, completionThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("auth-completion-"));
+
+        this.encodeTimer = hashingTimer(meterRegistry, "encode");
+        this.matchesTimer = hashingTimer(meterRegistry, "matches");
+        this.queueWaitTimer = Timer.builder("shopease.auth.hashing.queue.wait")
+                .description("Attente d'un calcul BCrypt avant son exécution")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("shopease.auth.hashing.rejected")
+                .description("Calculs BCrypt rejetés, file d'attente pleine")
+                .register(meterRegistry);
+        Gauge.builder("shopease.auth.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Calculs BCrypt en attente")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encode un mot de passe sur le pool de hachage.
+     *
+     * @param rawPassword le mot de passe en clair
+     * @return le futur contenant le hash BCrypt
+     * @throws ServiceUnavailableException si la file d'attente du pool est pleine
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Vérifie un mot de passe contre son hash sur le pool de hachage.
+     *
+     * @param rawPassword     le mot de passe en clair
+     * @param encodedPassword le hash stocké
+     * @return le futur contenant {@code true} si le mot de passe correspond
+     * @throws ServiceUnavailableException si la file d'attente du pool est pleine
+     */
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indique si un hash a été produit avec un coût BCrypt différent du coût configuré
+     * (plus faible, ou plus élevé après une baisse volontaire du coût) et doit donc être recalculé.
+     *
+     * @param encodedPassword le hash stocké
+     * @return {@code true} si le hash doit être recalculé
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher cost = BCRYPT_COST.matcher(encodedPassword);
+        return cost.find() ? Integer.parseInt(cost.group(1)) != strength : passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            }, executor).thenApplyAsync(Function.identity(), completionExecutor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException(
+                    "Service d'authentification saturé, veuillez réessayer", retryAfterSeconds);
+        }
+    }
+
+    private static Timer hashingTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("shopease.auth.hashing")
+                .description("Durée d'un calcul BCrypt")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        completionExecutor.shutdown();
+    }
+}
@@ -0,0 +1,352 @@
+package com.shopease.backend.service;
+
+/**
+ * Diffusion en Server-Sent Events des changements de prix, de stock et de disponibilité
+ * des produits, pour remplacer l'interrogation périodique du catalogue par la vitrine.
+ * <p>
+ * Les changements sont déduits des {@link ProductChangedEvent}, {@link StockChangedEvent} et
+ * {@link ProductsImportedEvent}, traités une fois leur transaction validée : un changement annulé
+ * n'est jamais diffusé. Les produits reçus sont comparés à l'état précédent lu dans le
+ * {@link CatalogSnapshot} (l'écouteur passe avant la mise à jour de l'instantané) : une
+ * modification du nom ou de la description n'est pas diffusée. Pour une variation de stock, le
+ * stock diffusé est relu via {@link ProductService} (entrée de cache retirée avant la
+ * publication) plutôt que déduit de la variation. Chaque abonné peut filtrer par produits et
+ * par catégories.
+ * </p>
+ * <p>
+ * Chaque abonné a un tampon borné, indexé par produit : les changements rapprochés d'un même
+ * produit sont fusionnés et seul le dernier état est envoyé. Les tampons sont vidés toutes les
+ * {@code shopease.products.changes.flush-interval-ms} par un pool d'envoi dédié, un abonné à la
+ * fois par thread ; un client lent continue de fusionner ses changements pendant que son envoi
+ * est en cours. Lorsqu'un tampon déborde, il est vidé et l'abonné reçoit un événement
+ * {@code resync} : il doit relire le catalogue. Un commentaire est envoyé aux abonnés inactifs
+ * pour garder la connexion ouverte à travers les proxys.
+ * </p>
+ * <p>
+ * Métriques : {@code shopease.products.changes.subscribers}, {@code shopease.products.changes.sent},
+ * {@code shopease.products.changes.coalesced} et {@code shopease.products.changes.overflows}.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.dto.ProductChange;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.event.ProductChangedEvent;
+import com.shopease.backend.event.ProductsImportedEvent;
+import com.shopease.backend.event.StockChangedEvent;
+import com.shopease.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ProductChangeStream implements DisposableBean {
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final ProductService productService;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Places réservées avant l'ajout d'un abonné : le plafond tient face aux abonnements simultanés
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor sender;
+    private final AtomicLong sequence = new AtomicLong();
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long heartbeatNanos;
+    private final Counter sentCounter;
+    private final Counter coalescedCounter;
+    private final Counter overflowCounter;
+
+    /**
+     * @param maxSubscribers   le nombre maximal d'abonnés simultanés
+     * @param bufferSize       le nombre maximal de produits en attente d'envoi par abonné
+     * @param senderThreads    le nombre de threads d'envoi
+     * @param timeoutMinutes   la durée d'un abonnement, après laquelle le client se reconnecte
+     * @param heartbeatSeconds le délai d'inactivité après lequel un commentaire est envoyé
+     */
+    public ProductChangeStream(CatalogSnapshot catalogSnapshot, ProductService productService,
+                               MeterRegistry meterRegistry,
+                               @Value("${shopease.products.changes.max-subscribers:1000}") int maxSubscribers,
+                               @Value("${shopease.products.changes.buffer-size:256}") int bufferSize,
+                               @Value("${shopease.products.changes.sender-threads:2}") int senderThreads,
+                               @Value("${shopease.products.changes.timeout-minutes:30}") long timeoutMinutes,
+                               @Value("${shopease.products.changes.heartbeat-seconds:20}") long heartbeatSeconds) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.productService = productService;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.heartbeatNanos = TimeUnit.SECONDS.toNanos(heartbeatSeconds);
+        int threads = Math.max(1, senderThreads);
+        // Un abonné n'est jamais en file plus d'une fois : la file n'a pas besoin de dépasser leur nombre
+        this.sender = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxSubscribers)),
+                new CustomizableThreadFactory("product-changes-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.sentCounter = Counter.builder("shopease.products.changes.sent")
+                .description("Changements de produit envoyés aux abonnés du flux")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("shopease.products.changes.coalesced")
+                .description("Changements de produit fusionnés avec un changement en attente du même produit")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("shopease.products.changes.overflows")
+                .description("Tampons d'abonnés vidés après débordement (événement resync)")
+                .register(meterRegistry);
+        Gauge.builder("shopease.products.changes.subscribers", subscribers, Set::size)
+                .description("Abonnés au flux des changements de produits")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ouvre un abonnement au flux des changements.
+     *
+     * @param productIds  les produits suivis, ou un ensemble vide pour tous
+     * @param categoryIds les catégories suivies, ou un ensemble vide pour toutes
+     * @return l'émetteur SSE de l'abonnement
+     * @throws ServiceUnavailableException si le nombre maximal d'abonnés est atteint
+     */
+    public SseEmitter subscribe(Set<Long> productIds, Set<Long> categoryIds) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Trop d'abonnés au flux des produits, veuillez réessayer", 5);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, productIds, categoryIds);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        try {
+            // Envoie les en-têtes tout de suite : le client sait que l'abonnement est ouvert
+            emitter.send(SseEmitter.event().comment("abonné"));
+        } catch (IOException e) {
+            unsubscribe(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        CatalogSnapshot.ProductState before = catalogSnapshot.state(event.getProductId());
+        if (!event.isDeleted()) {
+            publishIfChanged(before, event.getProduct());
+        } else if (before != null) {
+            publish(ProductChange.deleted(event.getProductId(), before.categoryId()), before.categoryId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStockChanged(StockChangedEvent event) {
+        if (subscribers.isEmpty() || event.getDelta() == 0) {
+            return;
+        }
+        CatalogSnapshot.ProductState before = catalogSnapshot.state(event.getProductId());
+        if (before == null) {
+            return;
+        }
+        // Stock validé, relu plutôt que déduit de la variation (événements concurrents)
+        productService.getProductById(event.getProductId()).ifPresent(product ->
+                publish(ProductChange.updated(product.getId(), before.categoryId(),
+                        BigDecimal.valueOf(before.price(), 2), product.getStock()), before.categoryId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (Product product : event.getProducts()) {
+            publishIfChanged(catalogSnapshot.state(product.getId()), product);
+        }
+    }
+
+    /**
+     * Confie au pool d'envoi les abonnés qui ont des changements en attente, ou qui sont
+     * inactifs depuis plus que le délai de maintien de connexion.
+     */
+    @Scheduled(fixedDelayString = "${shopease.products.changes.flush-interval-ms:250}")
+    public void flush() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.hasPending() && now - subscriber.lastSendNanos < heartbeatNanos) {
+                continue;
+            }
+            if (!subscriber.sending.compareAndSet(false, true)) {
+                // Envoi précédent en cours (client lent) : les changements continuent d'être fusionnés
+                continue;
+            }
+            try {
+                sender.execute(() -> deliver(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    private void publishIfChanged(CatalogSnapshot.ProductState before, Product product) {
+        Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+        if (before != null
+                && before.price() == CatalogSnapshot.toMinorUnits(product.getPrice())
+                && before.stock() == product.getStock()
+                && Objects.equals(before.categoryId(), categoryId)) {
+            return;
+        }
+        publish(ProductChange.updated(product.getId(), categoryId, product.getPrice(), product.getStock()),
+                before == null ? null : before.categoryId());
+    }
+
+    /**
+     * Dépose un changement dans le tampon des abonnés concernés, par l'ancienne ou par la
+     * nouvelle catégorie du produit.
+     */
+    private void publish(ProductChange change, Long previousCategoryId) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(change.getId(), change.getCategoryId(), previousCategoryId)) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    private void deliver(Subscriber subscriber) {
+        try {
+            Batch batch = subscriber.drain();
+            if (batch.overflowed()) {
+                subscriber.emitter.send(SseEmitter.event().id(String.valueOf(sequence.incrementAndGet())).name("resync").data(""));
+            }
+            for (ProductChange change : batch.changes()) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(sequence.incrementAndGet()))
+                        .name("product")
+                        .data(change, MediaType.APPLICATION_JSON));
+                sentCounter.increment();
+            }
+            if (!batch.overflowed() && batch.changes().isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event().comment(""));
+            }
+            subscriber.lastSendNanos = System.nanoTime();
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté ou abonnement terminé
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    /**
+     * Retire un abonné et libère sa place ; sans effet s'il est déjà retiré.
+     */
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Changements retirés du tampon d'un abonné pour un envoi.
+     */
+    private record Batch(List<ProductChange> changes, boolean overflowed) {
+    }
+
+    /**
+     * Un abonné : ses filtres et son tampon de changements, indexé par produit.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        private final Set<Long> categoryIds;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final Map<Long, ProductChange> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private volatile long lastSendNanos = System.nanoTime();
+
+        private Subscriber(SseEmitter emitter, Set<Long> productIds, Set<Long> categoryIds) {
+            this.emitter = emitter;
+            this.productIds = Set.copyOf(productIds);
+            this.categoryIds = Set.copyOf(categoryIds);
+        }
+
+        private boolean accepts(Long productId, Long categoryId, Long previousCategoryId) {
+            if (!productIds.isEmpty() && !productIds.contains(productId)) {
+                return false;
+            }
+            return categoryIds.isEmpty()
+                    || (categoryId != null && categoryIds.contains(categoryId))
+                    || (previousCategoryId != null && categoryIds.contains(previousCategoryId));
+        }
+
+        /**
+         * Remplace le changement en attente du même produit (sa place dans l'ordre d'envoi est
+         * conservée) ; au-delà de la taille du tampon, les changements en attente sont abandonnés
+         * au profit d'un événement {@code resync}.
+         */
+        private synchronized void offer(ProductChange change) {
+            if (overflowed) {
+                return;
+            }
+            if (pending.put(change.getId(), change) != null) {
+                coalescedCounter.increment();
+            } else if (pending.size() > bufferSize) {
+                pending.clear();
+                overflowed = true;
+                overflowCounter.increment();
+            }
+        }
+
+        private synchronized boolean hasPending() {
+            return overflowed || !pending.isEmpty();
+        }
+
+        private synchronized Batch drain() {
+            Batch batch = new Batch(new ArrayList<>(pending.values()), overflowed);
+            pending.clear();
+            overflowed = false;
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.shopease.backend.service;
+
+/**
+ * Service d'export complet du catalogue (produits et catégories) en NDJSON ou en CSV.
+ * <p>
+ * Les produits sont lus avec un curseur côté base, en avant seulement et avec une taille
+ * de lot fixe ; chaque lot est écrit dans le flux de sortie puis détaché du contexte de
+ * persistance. La mémoire utilisée reste ainsi constante quelle que soit la taille de la
+ * table. Le CSV produit reprend les colonnes attendues par l'import.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopease.backend.entity.Category;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ProductExportService {
+
+    /**
+     * Formats d'export supportés.
+     */
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final String CSV_HEADER = "id,name,description,price,stock,imageUrl,categoryId,category";
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductExportService(ProductRepository productRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${shopease.export.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Écrit tout le catalogue dans le flux, au format demandé. Le flux n'est pas fermé.
+     *
+     * @param format le format de sortie
+     * @param out    le flux de destination
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    @Transactional(readOnly = true)
+    public void export(Format format, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            writeCsv(out);
+        } else {
+            writeNdjson(out);
+        }
+    }
+
+    private void writeNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // Les lignes sont séparées explicitement par '\n' (pas de séparateur par défaut)
+            generator.setRootValueSeparator(null);
+            forEachChunked(product -> {
+                generator.writeObject(product);
+                generator.writeRaw('\n');
+            }, generator::flush);
+        }
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        forEachChunked(product -> {
+            Category category = product.getCategory();
+            writer.write(String.valueOf(product.getId()));
+            writer.write(',');
+            writer.write(csvField(product.getName()));
+            writer.write(',');
+            writer.write(csvField(product.getDescription()));
+            writer.write(',');
+            writer.write(product.getPrice() == null ? "" : product.getPrice().toPlainString());
+            writer.write(',');
+            writer.write(String.valueOf(product.getStock()));
+            writer.write(',');
+            writer.write(csvField(product.getImageUrl()));
+            writer.write(',');
+            writer.write(category == null ? "" : String.valueOf(category.getId()));
+            writer.write(',');
+            writer.write(category == null ? "" : csvField(category.getName()));
+            writer.write("\r\n");
+        }, writer::flush);
+        writer.flush();
+    }
+
+    /**
+     * Parcourt le catalogue avec le curseur de {@link ProductRepository#streamAll()} et vide
+     * le contexte de persistance après chaque lot, une fois le lot écrit.
+     */
+    private void forEachChunked(RowWriter rowWriter, ChunkEnd chunkEnd) throws IOException {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            Iterator<Product> iterator = products.iterator();
+            int inChunk = 0;
+            while (iterator.hasNext()) {
+                rowWriter.write(iterator.next());
+                if (++inChunk == chunkSize) {
+                    chunkEnd.run();
+                    entityManager.clear();
+                    inChunk = 0;
+                }
+            }
+            chunkEnd.run();
+        }
+    }
+
+    /**
+     * Échappe un champ CSV (RFC 4180) : guillemets doublés et champ entouré de guillemets
+     * s'il contient un séparateur, un guillemet ou un saut de ligne.
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Product product) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ChunkEnd {
+        void run() throws IOException;
+    }
+}
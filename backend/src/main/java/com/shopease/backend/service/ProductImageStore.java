@@ -0,0 +1,366 @@
+package com.shopease.backend.service;
+
+/**
+ * Stockage local des images produit, adressé par contenu.
+ * <p>
+ * Un envoi est écrit au fil de l'eau dans un fichier temporaire pendant que son empreinte
+ * SHA-256 est calculée, puis renommé en {@code <empreinte>.<extension>}. Deux envois du même
+ * fichier partagent donc le même fichier, et le nom d'une image ne désigne jamais qu'un seul
+ * contenu : il peut servir d'ETag fort et être mis en cache sans limite de durée.
+ * </p>
+ * <p>
+ * Les miniatures (largeurs de {@code shopease.images.thumbnail-widths}) sont calculées une
+ * seule fois, sur un pool dédié à file bornée, dès l'envoi ou à la première demande, puis
+ * conservées sur disque. Tant qu'une miniature n'est pas prête, {@link #thumbnail} renvoie
+ * un résultat vide. Les formats que {@code ImageIO} ne sait pas lire (WebP) n'ont pas de
+ * miniature.
+ * </p>
+ * <p>
+ * Une image compressée peut décrire bien plus de pixels que ses octets ne le laissent penser :
+ * ses dimensions sont lues dans son en-tête, sans la décoder, et une image de plus de
+ * {@code shopease.images.max-pixels} pixels est refusée à l'envoi et n'est jamais décodée.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImageStore implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImageStore.class);
+
+    private static final Pattern NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+    private static final Map<String, MediaType> MEDIA_TYPES = Map.of(
+            "jpg", MediaType.IMAGE_JPEG,
+            "png", MediaType.IMAGE_PNG,
+            "gif", MediaType.IMAGE_GIF,
+            "webp", MediaType.parseMediaType("image/webp"));
+
+    private final Path originals;
+    private final Path thumbnails;
+    private final Path uploads;
+    private final long maxSizeBytes;
+    private final long maxPixels;
+    private final Set<Integer> thumbnailWidths;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Miniatures en cours de calcul ou en attente, pour ne lancer chaque calcul qu'une fois.
+     */
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param directory       le répertoire racine du stockage
+     * @param maxSizeBytes    la taille maximale d'une image envoyée
+     * @param thumbnailWidths les largeurs de miniature proposées, en pixels
+     * @param queueCapacity   le nombre maximal de miniatures en attente de calcul
+     * @param maxPixels       le nombre maximal de pixels (largeur × hauteur) d'une image
+     */
+    public ProductImageStore(@Value("${shopease.images.directory:data/images}") String directory,
+                             @Value("${shopease.images.max-size-bytes:10485760}") long maxSizeBytes,
+                             @Value("${shopease.images.thumbnail-widths:160,480}") int[] thumbnailWidths,
+                             @Value("${shopease.images.thumbnail-queue-capacity:256}") int queueCapacity,
+                             @Value("${shopease.images.max-pixels:40000000}") long maxPixels) {
+        Path root = Path.of(directory).toAbsolutePath().normalize();
+        this.originals = root.resolve("originals");
+        this.thumbnails = root.resolve("thumbnails");
+        this.uploads = root.resolve("uploads");
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxPixels = maxPixels;
+        this.thumbnailWidths = Arrays.stream(thumbnailWidths).boxed().collect(Collectors.toUnmodifiableSet());
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("image-thumbnails-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Enregistre une image lue au fil de l'eau et planifie le calcul de ses miniatures.
+     *
+     * @param content le contenu de l'image (JPEG, PNG, GIF ou WebP, reconnu à ses premiers octets)
+     * @return le nom de l'image : son empreinte SHA-256 suivie de l'extension de son format
+     * @throws ResponseStatusException 415 si le format n'est pas reconnu, 413 si l'image est trop
+     *                                 volumineuse ou compte trop de pixels
+     */
+    public String store(InputStream content) throws IOException {
+        Files.createDirectories(originals);
+        Files.createDirectories(uploads);
+        BufferedInputStream in = new BufferedInputStream(content);
+        in.mark(12);
+        String extension = detectExtension(in.readNBytes(12));
+        in.reset();
+        if (extension == null) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Format d'image non supporté (JPEG, PNG, GIF ou WebP attendu)");
+        }
+
+        Path upload = Files.createTempFile(uploads, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(upload), digest)) {
+                byte[] buffer = new byte[64 * 1024];
+                long size = 0;
+                for (int read; (read = in.read(buffer)) != -1; ) {
+                    size += read;
+                    if (size > maxSizeBytes) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "Image trop volumineuse (maximum " + maxSizeBytes + " octets)");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (pixels(upload) > maxPixels) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Image trop grande (maximum " + maxPixels + " pixels)");
+            }
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            Path target = originals.resolve(name);
+            if (!Files.exists(target)) {
+                Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            for (int width : thumbnailWidths) {
+                scheduleThumbnail(name, width);
+            }
+            return name;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * Retourne le fichier d'une image, s'il existe.
+     */
+    public Optional<Path> original(String name) {
+        if (!NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path file = originals.resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Retourne la miniature d'une image si elle est prête ; sinon planifie son calcul et
+     * renvoie un résultat vide.
+     *
+     * @throws ResponseStatusException 400 si la largeur ne fait pas partie des largeurs proposées
+     */
+    public Optional<Path> thumbnail(String name, int width) {
+        if (!thumbnailWidths.contains(width)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Largeur de miniature non proposée : " + width + " (largeurs : " + thumbnailWidths + ")");
+        }
+        Path file = thumbnailPath(name, width);
+        if (Files.isRegularFile(file)) {
+            return Optional.of(file);
+        }
+        scheduleThumbnail(name, width);
+        return Optional.empty();
+    }
+
+    /**
+     * Retourne le type de contenu d'un fichier du stockage, d'après son extension.
+     */
+    public static MediaType mediaType(Path file) {
+        String fileName = file.getFileName().toString();
+        return MEDIA_TYPES.getOrDefault(fileName.substring(fileName.lastIndexOf('.') + 1),
+                MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private void scheduleThumbnail(String name, int width) {
+        Path file = thumbnailPath(name, width);
+        if (name.endsWith(".webp") || Files.exists(file) || !pending.add(file)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    writeThumbnail(originals.resolve(name), file, width);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Échec du calcul de la miniature {} ({} px) : {}", name, width, e.getMessage());
+                } finally {
+                    pending.remove(file);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // File pleine : la miniature sera de nouveau demandée au prochain affichage
+            pending.remove(file);
+        }
+    }
+
+    /**
+     * Réduit l'image à la largeur demandée (sans l'agrandir) et l'écrit de façon atomique.
+     */
+    private void writeThumbnail(Path original, Path target, int width) throws IOException {
+        BufferedImage source;
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            ImageReader reader = reader(input);
+            if (reader == null) {
+                return;
+            }
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    log.warn("Image {} ignorée : {} pixels (maximum {})", original.getFileName(), pixels, maxPixels);
+                    return;
+                }
+                source = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round(source.getHeight() * (targetWidth / (float) source.getWidth())));
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), "thumbnail-", ".tmp");
+        try {
+            String format = extension(target).equals("jpg") ? "jpeg" : "png";
+            if (!ImageIO.write(scaled, format, temporary.toFile())) {
+                throw new IOException("Aucun encodeur " + format);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Retourne le nombre de pixels d'une image, lu dans son en-tête sans la décoder ;
+     * 0 si aucun lecteur ne reconnaît le format (WebP).
+     */
+    private static long pixels(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(input);
+            if (reader == null) {
+                return 0;
+            }
+            try {
+                reader.setInput(input, true, true);
+                return (long) reader.getWidth(0) * reader.getHeight(0);
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Image illisible");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader reader(ImageInputStream input) {
+        if (input == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        return readers.hasNext() ? readers.next() : null;
+    }
+
+    /**
+     * Les miniatures JPEG restent en JPEG ; PNG et GIF donnent des miniatures PNG.
+     */
+    private Path thumbnailPath(String name, int width) {
+        String hash = name.substring(0, name.lastIndexOf('.'));
+        String extension = name.endsWith(".jpg") ? "jpg" : name.endsWith(".webp") ? "webp" : "png";
+        return thumbnails.resolve(String.valueOf(width)).resolve(hash + "." + extension);
+    }
+
+    private static String extension(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(fileName.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Reconnaît le format d'une image à sa signature.
+     */
+    private static String detectExtension(byte[] header) {
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (startsWith(header, 'R', 'I', 'F', 'F') && header.length >= 12
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int... signature) {
+        if (header.length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
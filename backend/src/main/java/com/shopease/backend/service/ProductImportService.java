@@ -0,0 +1,286 @@
+package com.shopease.backend.service;
+
+/**
+ * Service d'import en masse de produits à partir d'un flux CSV ou NDJSON.
+ * <p>
+ * Le flux est lu ligne par ligne ; les catégories sont résolues par leur nom à partir de
+ * l'instantané de {@link CategoryService}, sans requête. Les produits valides sont insérés
+ * par lots de taille configurable, chaque lot dans sa propre transaction et en un seul lot
+ * JDBC. Une ligne invalide est signalée dans le bilan sans interrompre l'import ; si un lot
+ * est refusé par la base, ses lignes sont rejouées une à une pour isoler les fautives.
+ * La mémoire utilisée ne dépend que de la taille des lots, pas de celle du fichier.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopease.backend.dto.CategorySummary;
+import com.shopease.backend.dto.ProductImportReport;
+import com.shopease.backend.entity.Category;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.event.ProductsImportedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+public class ProductImportService {
+
+    private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductImportService(CategoryService categoryService,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${shopease.import.batch-size:500}") int batchSize,
+                                @Value("${shopease.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.categoryService = categoryService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Importe un flux CSV (UTF-8) dont la première ligne contient les noms de colonnes :
+     * {@code name}, {@code price}, {@code category} (obligatoires), {@code description},
+     * {@code stock} et {@code imageUrl} (facultatives), dans n'importe quel ordre.
+     *
+     * @param input le corps de la requête
+     * @return le bilan de l'import
+     * @throws IOException             en cas d'erreur de lecture
+     * @throws ResponseStatusException 400 si l'en-tête n'a pas une colonne obligatoire ou si un
+     *                                 guillemet n'est pas fermé
+     */
+    public ProductImportReport importCsv(InputStream input) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), ',');
+        List<String> header = csv.next();
+        if (header == null) {
+            return new ProductImportReport(maxReportedErrors);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "price", "category")) {
+            if (!columns.containsKey(required)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Colonne obligatoire absente de l'en-tête CSV : " + required);
+            }
+        }
+
+        Importer importer = new Importer();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            ImportRow row = new ImportRow();
+            row.name = field(record, columns, "name");
+            row.description = field(record, columns, "description");
+            row.imageUrl = field(record, columns, "imageurl");
+            row.category = field(record, columns, "category");
+            String price = field(record, columns, "price");
+            String stock = field(record, columns, "stock");
+            try {
+                row.price = price == null ? null : new BigDecimal(price);
+                row.stock = stock == null ? null : Integer.valueOf(stock);
+            } catch (NumberFormatException e) {
+                importer.reject(csv.getRecordLine(), "Nombre invalide pour le prix ou le stock");
+                continue;
+            }
+            importer.accept(csv.getRecordLine(), row);
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Importe un flux NDJSON (un objet JSON par ligne) avec les champs
+     * {@code name}, {@code description}, {@code price}, {@code stock}, {@code category}
+     * (nom de la catégorie) et {@code imageUrl}.
+     *
+     * @param input le corps de la requête
+     * @return le bilan de l'import
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public ProductImportReport importNdjson(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Importer importer = new Importer();
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                importer.accept(lineNumber, objectMapper.readValue(line, ImportRow.class));
+            } catch (JsonProcessingException e) {
+                importer.reject(lineNumber, "JSON invalide : " + e.getOriginalMessage());
+            }
+        }
+        return importer.finish();
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Ligne d'import telle que lue dans le fichier, avant validation.
+     */
+    static class ImportRow {
+        public String name;
+        public String description;
+        public BigDecimal price;
+        public Integer stock;
+        public String category;
+        public String imageUrl;
+    }
+
+    /**
+     * État d'un import en cours : lot courant et bilan.
+     */
+    private class Importer {
+        private final Map<String, Category> categoriesByName = new HashMap<>();
+        private final ProductImportReport report = new ProductImportReport(maxReportedErrors);
+        private final List<Product> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchLines = new ArrayList<>(batchSize);
+
+        Importer() {
+            for (CategorySummary summary : categoryService.getAll()) {
+                // Référence détachée : seule la clé est utilisée pour la colonne category_id
+                Category category = new Category();
+                category.setId(summary.getId());
+                category.setName(summary.getName());
+                categoriesByName.put(summary.getName().trim().toLowerCase(Locale.ROOT), category);
+            }
+        }
+
+        void accept(long line, ImportRow row) {
+            String error = validate(row);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            Product product = new Product();
+            product.setName(row.name.trim());
+            product.setDescription(row.description);
+            product.setPrice(row.price);
+            product.setStock(row.stock == null ? 0 : row.stock);
+            product.setImageUrl(row.imageUrl);
+            // Catégorie détachée issue de l'instantané : référencée par sa clé, sans requête
+            product.setCategory(categoriesByName.get(row.category.trim().toLowerCase(Locale.ROOT)));
+            batch.add(product);
+            batchLines.add(line);
+            if (batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            report.addError(line, message);
+        }
+
+        ProductImportReport finish() {
+            flush();
+            return report;
+        }
+
+        private String validate(ImportRow row) {
+            if (row.name == null || row.name.isBlank()) {
+                return "Le nom est obligatoire";
+            }
+            if (row.price == null || row.price.signum() < 0) {
+                return "Le prix est obligatoire et doit être positif";
+            }
+            if (row.stock != null && row.stock < 0) {
+                return "Le stock ne peut pas être négatif";
+            }
+            if (row.description != null && row.description.length() > 1000) {
+                return "La description dépasse 1000 caractères";
+            }
+            if (row.category == null || !categoriesByName.containsKey(row.category.trim().toLowerCase(Locale.ROOT))) {
+                return "Catégorie inconnue : " + row.category;
+            }
+            return null;
+        }
+
+        /**
+         * Insère le lot courant dans une transaction ; en cas de refus par la base,
+         * rejoue chaque ligne séparément pour n'écarter que les lignes fautives.
+         */
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                persist(batch);
+                report.addImported(batch.size());
+                eventPublisher.publishEvent(new ProductsImportedEvent(batch));
+            } catch (DataAccessException e) {
+                List<Product> imported = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    Product product = batch.get(i);
+                    product.setId(null);
+                    try {
+                        persist(List.of(product));
+                        imported.add(product);
+                    } catch (DataAccessException rowError) {
+                        reject(batchLines.get(i), "Refusé par la base : " + rowError.getMostSpecificCause().getMessage());
+                    }
+                }
+                report.addImported(imported.size());
+                if (!imported.isEmpty()) {
+                    eventPublisher.publishEvent(new ProductsImportedEvent(imported));
+                }
+            }
+            batch.clear();
+            batchLines.clear();
+        }
+
+        private void persist(List<Product> products) {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (Product product : products) {
+                    entityManager.persist(product);
+                }
+                entityManager.flush();
+                // Détache le lot : le contexte de persistance ne grossit pas avec l'import
+                entityManager.clear();
+            });
+        }
+    }
+}
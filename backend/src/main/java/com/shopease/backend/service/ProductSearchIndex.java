@@ -0,0 +1,352 @@
+package com.shopease.backend.service;
+
+/**
+ * Index inversé en mémoire sur le nom et la description des produits.
+ * <p>
+ * Les textes sont découpés en termes, mis en minuscules et débarrassés de leurs accents
+ * (« Été » et « ete » donnent le même terme), puis les mots vides français sont écartés.
+ * Une recherche exige que chaque terme de la requête soit présent ; le dernier terme est
+ * traité comme un préfixe pour l'autocomplétion, et n'est pas écarté comme mot vide tant
+ * qu'il est en cours de saisie (« la » peut devenir « lampe »). Les résultats sont classés par score BM25,
+ * les occurrences dans le nom pesant plus lourd que celles dans la description.
+ * </p>
+ * <p>
+ * L'index est construit au démarrage puis tenu à jour à partir des {@link ProductChangedEvent}
+ * publiés par {@link ProductService} et des lots de l'import en masse, traités après la
+ * validation de la transaction qui les publie : aucune recherche n'interroge la base.
+ * Pendant la construction, un produit modifié par un événement n'est plus réécrit par la
+ * lecture en flux, dont l'état peut être antérieur.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.event.ProductChangedEvent;
+import com.shopease.backend.event.ProductsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "avec", "ce", "ces", "d", "dans", "de", "des", "du", "en", "et", "l",
+            "la", "le", "les", "ou", "par", "pour", "sa", "sans", "se", "son", "sur", "un", "une");
+
+    /**
+     * Poids d'une occurrence dans le nom par rapport à une occurrence dans la description.
+     */
+    private static final int NAME_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * Nombre maximal de termes de l'index retenus pour un préfixe.
+     */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ProductService productService;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Dictionnaire trié des termes (pour les recherches par préfixe) :
+     * terme → (identifiant du produit → fréquence pondérée du terme).
+     */
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    /**
+     * Termes indexés par produit, pour pouvoir retirer un produit de l'index.
+     */
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * Produits modifiés par un événement pendant la construction, ou {@code null} hors construction.
+     */
+    private Set<Long> changedDuringRebuild;
+
+    public ProductSearchIndex(ProductService productService) {
+        this.productService = productService;
+    }
+
+    /**
+     * Construit l'index à partir du catalogue complet, lu en flux. Chaque produit lu est indexé
+     * sous le verrou d'écriture, sauf s'il a été modifié entre-temps par un événement.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            productService.streamProducts(product -> index(product, true));
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+                log.info("Index de recherche construit : {} produits, {} termes en {} ms",
+                        documents.size(), postings.size(), System.currentTimeMillis() - start);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        event.getProducts().forEach(this::index);
+    }
+
+    /**
+     * Ajoute ou remplace un produit dans l'index.
+     */
+    public void index(Product product) {
+        index(product, false);
+    }
+
+    private void index(Product product, boolean fromRebuild) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : analyze(product.getName())) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : analyze(product.getDescription())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                if (fromRebuild && changedDuringRebuild.contains(product.getId())) {
+                    return;
+                }
+                if (!fromRebuild) {
+                    changedDuringRebuild.add(product.getId());
+                }
+            }
+            removeLocked(product.getId());
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>())
+                        .put(product.getId(), entry.getValue());
+            }
+            documents.put(product.getId(), new IndexedDocument(frequencies.keySet().toArray(String[]::new), length));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un produit de l'index.
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(productId);
+            }
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les produits correspondant à la requête.
+     *
+     * @param query le texte saisi ; le dernier mot est complété comme un préfixe
+     * @param limit le nombre maximal de résultats
+     * @return les identifiants des produits, du plus pertinent au moins pertinent
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = analyzeQuery(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1;
+                Map<Long, Double> termScores = scoreTerm(terms.get(i), prefix, documentCount, averageLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Chaque terme de la requête doit être présent (intersection)
+                    Map<Long, Double> intersection = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : termScores.entrySet()) {
+                        Double previous = scores.get(entry.getKey());
+                        if (previous != null) {
+                            intersection.put(entry.getKey(), previous + entry.getValue());
+                        }
+                    }
+                    scores = intersection;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calcule le score BM25 d'un terme de la requête pour chaque produit qui le contient.
+     * En mode préfixe, le terme est étendu aux termes de l'index qui le prolongent ;
+     * une correspondance partielle compte un peu moins qu'une correspondance exacte.
+     */
+    private Map<Long, Double> scoreTerm(String term, boolean prefix, int documentCount, double averageLength) {
+        Map<String, Map<Long, Integer>> matches = new LinkedHashMap<>();
+        if (prefix) {
+            for (Map.Entry<String, Map<Long, Integer>> entry
+                    : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                matches.put(entry.getKey(), entry.getValue());
+                if (matches.size() == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+            }
+        } else if (postings.containsKey(term)) {
+            matches.put(term, postings.get(term));
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+            Map<Long, Integer> docs = match.getValue();
+            double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+            double boost = match.getKey().equals(term) ? 1.0 : 0.8;
+            for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                int frequency = doc.getValue();
+                int length = documents.get(doc.getKey()).length;
+                double norm = frequency + K1 * (1 - B + B * length / averageLength);
+                double score = boost * idf * frequency * (K1 + 1) / norm;
+                // Un produit qui contient plusieurs extensions du préfixe garde la meilleure
+                scores.merge(doc.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void removeLocked(Long productId) {
+        IndexedDocument previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(productId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= previous.length;
+    }
+
+    /**
+     * Découpe un texte en termes normalisés : minuscules, sans accents, sans mots vides.
+     */
+    static List<String> analyze(String text) {
+        return terms(fold(text), false);
+    }
+
+    /**
+     * Découpe une requête comme {@link #analyze}, mais garde son dernier mot même s'il est un
+     * mot vide lorsque la saisie s'arrête au milieu de ce mot (aucun séparateur final).
+     */
+    static List<String> analyzeQuery(String query) {
+        String folded = fold(query);
+        boolean typing = !folded.isEmpty()
+                && !SEPARATORS.matcher(folded.substring(folded.length() - 1)).matches();
+        return terms(folded, typing);
+    }
+
+    private static List<String> terms(String folded, boolean keepLast) {
+        String[] tokens = SEPARATORS.split(folded);
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (!token.isEmpty() && (!STOP_WORDS.contains(token) || (keepLast && i == tokens.length - 1))) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Met un texte en minuscules et retire ses accents.
+     */
+    private static String fold(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        // Ligatures courantes en français, non décomposées par NFD
+        folded = folded.replace("œ", "oe").replace("Œ", "oe").replace("æ", "ae").replace("Æ", "ae");
+        return folded.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class IndexedDocument {
+        private final String[] terms;
+        private final int length;
+
+        private IndexedDocument(String[] terms, int length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+}
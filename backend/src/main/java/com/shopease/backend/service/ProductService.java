@@ -1,36 +1,300 @@
 package com.shopease.backend.service;
 
 
+import com.shopease.backend.config.CacheConfig;
+import com.shopease.backend.config.MetricsConfig;
+import com.shopease.backend.dto.ProductLookup;
+import com.shopease.backend.dto.ProductPage;
+import com.shopease.backend.dto.ProductSummary;
+import com.shopease.backend.entity.Category;
 import com.shopease.backend.entity.Product;
+import com.shopease.backend.event.ProductChangedEvent;
 import com.shopease.backend.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class ProductService {
 
+    /**
+     * Ordres de tri supportés par la pagination par curseur.
+     */
+    public enum SortOrder {
+        ID, PRICE
+    }
+
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final Cache productCache;
+    private final int multiGetMaxIds;
+    private final int multiGetChunkSize;
 
-    public ProductService(ProductRepository productRepository) {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductService(ProductRepository productRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          CacheManager cacheManager,
+                          @Value("${shopease.products.page.default-size:20}") int defaultPageSize,
+                          @Value("${shopease.products.page.max-size:100}") int maxPageSize,
+                          @Value("${shopease.products.multi-get.max-ids:500}") int multiGetMaxIds,
+                          @Value("${shopease.products.multi-get.chunk-size:100}") int multiGetChunkSize) {
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.productCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.PRODUCTS));
+        this.multiGetMaxIds = multiGetMaxIds;
+        this.multiGetChunkSize = Math.max(1, multiGetChunkSize);
+    }
+
+    /**
+     * Retourne une page de produits à partir d'un curseur keyset.
+     *
+     * @param sort   l'ordre de tri (par identifiant ou par prix)
+     * @param cursor le curseur reçu avec la page précédente, ou {@code null} pour la première page
+     * @param size   la taille de page demandée, bornée par la taille maximale configurée
+     * @return la page et le curseur de la page suivante
+     */
+    public ProductPage getProductPage(SortOrder sort, String cursor, Integer size) {
+        int limit = resolvePageSize(size);
+        // Un élément de plus que demandé permet de savoir s'il existe une page suivante
+        Limit fetch = Limit.of(limit + 1);
+
+        List<ProductSummary> rows;
+        if (sort == SortOrder.PRICE) {
+            if (cursor == null) {
+                rows = productRepository.findFirstPageByPrice(fetch);
+            } else {
+                Cursor after = decodeCursor(cursor, SortOrder.PRICE);
+                rows = productRepository.findPageAfterPrice(after.price(), after.id(), fetch);
+            }
+        } else {
+            long afterId = cursor == null ? 0L : decodeCursor(cursor, SortOrder.ID).id();
+            rows = productRepository.findPageAfterId(afterId, fetch);
+        }
+
+        if (rows.size() <= limit) {
+            return new ProductPage(rows, null);
+        }
+        List<ProductSummary> items = rows.subList(0, limit);
+        ProductSummary last = items.get(limit - 1);
+        String next = sort == SortOrder.PRICE
+                ? encodeCursor(SortOrder.PRICE, last.getPrice().toPlainString(), last.getId().toString())
+                : encodeCursor(SortOrder.ID, last.getId().toString());
+        return new ProductPage(items, next);
+    }
+
+    /**
+     * Retourne la taille de page effective : la taille par défaut si aucune n'est demandée,
+     * sinon la taille demandée bornée par la taille maximale configurée.
+     */
+    public int resolvePageSize(Integer size) {
+        return size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    /**
+     * Retourne les projections des produits correspondant aux identifiants, dans l'ordre
+     * des identifiants, en une seule requête ; les identifiants inconnus sont ignorés.
+     */
+    public List<ProductSummary> getSummariesByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSummary> found = productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, Function.identity()));
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Parcourt les projections de tout le catalogue, triées par identifiant, sans les charger
+     * en mémoire ; aucune entité n'est gérée par le contexte de persistance.
+     *
+     * @param action le traitement appliqué à chaque produit, dans l'ordre de lecture
+     */
+    @Transactional(readOnly = true)
+    public void streamSummaries(Consumer<ProductSummary> action) {
+        try (Stream<ProductSummary> summaries = productRepository.streamAllSummaries()) {
+            summaries.forEach(action);
+        }
     }
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    /**
+     * Parcourt tout le catalogue, trié par identifiant, sans le charger en mémoire.
+     * Chaque produit est détaché du contexte de persistance dès qu'il a été traité.
+     *
+     * @param action le traitement appliqué à chaque produit, dans l'ordre de lecture
+     */
+    @Transactional(readOnly = true)
+    public void streamProducts(Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                action.accept(product);
+                entityManager.detach(product);
+            });
+        }
     }
 
+    /**
+     * Retourne un produit par identifiant ; seul un défaut de cache interroge la base.
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id", unless = "#result == null")
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
 
+    /**
+     * Retourne plusieurs produits en un appel, dans l'ordre des identifiants demandés.
+     * <p>
+     * Les produits présents dans le cache des produits sont servis sans accès à la base ;
+     * les autres sont chargés par des requêtes {@code IN} d'au plus
+     * {@code shopease.products.multi-get.chunk-size} identifiants, puis mis en cache sans
+     * écraser une entrée placée entre-temps.
+     * Un identifiant inconnu donne un marqueur {@code NOT_FOUND} ; un identifiant répété
+     * donne un élément à chaque occurrence.
+     * </p>
+     *
+     * @param ids les identifiants demandés
+     * @return un élément par identifiant demandé
+     * @throws ResponseStatusException 400 si plus de {@code shopease.products.multi-get.max-ids} identifiants sont demandés
+     */
+    public List<ProductLookup> getProductsByIds(List<Long> ids) {
+        if (ids.size() > multiGetMaxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Trop d'identifiants demandés (maximum " + multiGetMaxIds + ")");
+        }
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product cached = id == null ? null : productCache.get(id, Product.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += multiGetChunkSize) {
+            List<Long> chunk = missing.subList(from, Math.min(from + multiGetChunkSize, missing.size()));
+            for (Product product : productRepository.findAllById(chunk)) {
+                // Une entrée mise en cache entre-temps est plus récente que cette lecture : on la garde
+                Cache.ValueWrapper existing = productCache.putIfAbsent(product.getId(), product);
+                found.put(product.getId(), existing != null && existing.get() instanceof Product current ? current : product);
+            }
+        }
+        List<ProductLookup> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = found.get(id);
+            results.add(product != null ? ProductLookup.found(product) : ProductLookup.notFound(id));
+        }
+        return results;
+    }
+
+    /**
+     * Crée ou met à jour un produit, puis invalide son entrée de cache.
+     */
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#product.id", condition = "#product.id != null")
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        resolveCategory(saved);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
+    }
+
+    /**
+     * Change l'image d'un produit. Le produit est relu en base : l'instance en cache, partagée
+     * entre les requêtes, n'est jamais modifiée.
+     *
+     * @throws ResponseStatusException 404 si le produit n'existe pas
+     */
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public Product updateImageUrl(Long id, String imageUrl) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produit introuvable"));
+        product.setImageUrl(imageUrl);
+        Product saved = productRepository.save(product);
+        resolveCategory(saved);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    /**
+     * Remplace une catégorie non chargée (proxy issu de la fusion, ou référence ne portant que
+     * l'identifiant) par la catégorie complète : le produit est sérialisé hors de toute session.
+     */
+    private void resolveCategory(Product product) {
+        Category category = product.getCategory();
+        if (category != null && category.getId() != null
+                && (!Hibernate.isInitialized(category) || category.getName() == null)) {
+            product.setCategory(entityManager.find(Category.class, category.getId()));
+        }
     }
-}
 
+    private static String encodeCursor(SortOrder sort, String... values) {
+        String raw = sort.name() + ":" + String.join(":", values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode et convertit un curseur ; toute erreur de format, y compris sur les valeurs,
+     * donne une réponse 400.
+     */
+    private static Cursor decodeCursor(String cursor, SortOrder expected) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            int valueCount = expected == SortOrder.PRICE ? 2 : 1;
+            if (parts.length != valueCount + 1 || !parts[0].equals(expected.name())) {
+                throw new IllegalArgumentException(raw);
+            }
+            return expected == SortOrder.PRICE
+                    ? new Cursor(new BigDecimal(parts[1]), Long.parseLong(parts[2]))
+                    : new Cursor(null, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException comprise
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur de pagination invalide");
+        }
+    }
+
+    /**
+     * Position décodée d'un curseur : dernier prix (tri par prix seulement) et dernier identifiant.
+     */
+    private record Cursor(BigDecimal price, long id) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.shopease.backend.service;
+
+/**
+ * Service de réservation de stock (réserver, confirmer, libérer avec délai d'expiration).
+ * <p>
+ * Le stock est décrémenté par une seule requête {@code UPDATE} conditionnelle
+ * ({@code stock >= quantité}) : la base sérialise les écritures concurrentes sur la ligne
+ * du produit le temps d'une courte transaction, sans lecture préalable ni verrou applicatif,
+ * et ne peut jamais descendre sous zéro. Les changements d'état d'une réservation sont eux
+ * aussi des mises à jour conditionnelles, si bien qu'une réservation n'est confirmée ou
+ * libérée qu'une seule fois, même face au balayage des expirations.
+ * </p>
+ * <p>
+ * Après validation de chaque transaction, l'entrée du produit est retirée du cache et un
+ * {@link StockChangedEvent} est publié pour les index en mémoire ; appelé dans une transaction
+ * englobante, l'événement n'est traité par ses écouteurs qu'après la validation de celle-ci.
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.config.CacheConfig;
+import com.shopease.backend.entity.StockReservation;
+import com.shopease.backend.enums.ReservationStatus;
+import com.shopease.backend.event.StockChangedEvent;
+import com.shopease.backend.exception.InsufficientStockException;
+import com.shopease.backend.repository.ProductRepository;
+import com.shopease.backend.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class StockService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockService.class);
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache productCache;
+    private final Duration reservationTtl;
+    private final int sweepBatchSize;
+
+    public StockService(ProductRepository productRepository,
+                        StockReservationRepository reservationRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        PlatformTransactionManager transactionManager,
+                        CacheManager cacheManager,
+                        @Value("${shopease.stock.reservation.ttl-seconds:600}") long ttlSeconds,
+                        @Value("${shopease.stock.reservation.sweep-batch-size:500}") int sweepBatchSize) {
+        this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.reservationTtl = Duration.ofSeconds(ttlSeconds);
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    /**
+     * Réserve des unités d'un produit pour un utilisateur.
+     *
+     * @param productId l'identifiant du produit
+     * @param quantity  le nombre d'unités, strictement positif
+     * @param username  l'utilisateur à l'origine de la réservation
+     * @return la réservation créée, en attente jusqu'à son expiration
+     * @throws InsufficientStockException si le stock restant ne suffit pas
+     */
+    public StockReservation reserve(Long productId, int quantity, String username) {
+        if (productId == null || quantity <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Produit et quantité positive obligatoires");
+        }
+        StockReservation reservation = transactionTemplate.execute(status -> {
+            if (productRepository.decrementStock(productId, quantity) == 0) {
+                if (!productRepository.existsById(productId)) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produit introuvable");
+                }
+                throw new InsufficientStockException(productId, quantity);
+            }
+            Instant now = Instant.now();
+            StockReservation created = new StockReservation();
+            created.setProductId(productId);
+            created.setQuantity(quantity);
+            created.setUsername(username);
+            created.setStatus(ReservationStatus.PENDING);
+            created.setCreatedAt(now);
+            created.setExpiresAt(now.plus(reservationTtl));
+            return reservationRepository.save(created);
+        });
+        stockChanged(productId, -quantity);
+        return reservation;
+    }
+
+    /**
+     * Confirme une réservation en attente : les unités restent définitivement retirées du stock.
+     *
+     * @param reservationId l'identifiant de la réservation
+     * @param username      l'utilisateur propriétaire de la réservation
+     * @return la réservation confirmée
+     */
+    public StockReservation commit(Long reservationId, String username) {
+        return transactionTemplate.execute(status -> {
+            StockReservation reservation = findOwned(reservationId, username);
+            if (reservationRepository.transitionFromPending(reservationId, ReservationStatus.COMMITTED, Instant.now()) == 0) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "La réservation n'est plus en attente (confirmée, libérée ou expirée)");
+            }
+            // Entité détachée par la mise à jour groupée : l'état n'est renseigné que pour la réponse
+            reservation.setStatus(ReservationStatus.COMMITTED);
+            return reservation;
+        });
+    }
+
+    /**
+     * Libère une réservation en attente et rend ses unités au stock.
+     * Libérer une réservation déjà libérée est sans effet.
+     *
+     * @param reservationId l'identifiant de la réservation
+     * @param username      l'utilisateur propriétaire de la réservation
+     * @return la réservation libérée
+     */
+    public StockReservation release(Long reservationId, String username) {
+        StockReservation reservation = transactionTemplate.execute(status -> {
+            StockReservation owned = findOwned(reservationId, username);
+            if (owned.getStatus() == ReservationStatus.COMMITTED) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "La réservation est déjà confirmée");
+            }
+            if (!releaseLocked(owned)) {
+                return null;
+            }
+            owned.setStatus(ReservationStatus.RELEASED);
+            return owned;
+        });
+        if (reservation == null) {
+            // Déjà libérée (par le client ou à l'expiration) : rien à rendre
+            return reservationRepository.findById(reservationId).orElseThrow();
+        }
+        stockChanged(reservation.getProductId(), reservation.getQuantity());
+        return reservation;
+    }
+
+    /**
+     * Libère périodiquement les réservations expirées, par lots, chacune dans sa propre transaction.
+     */
+    @Scheduled(fixedDelayString = "${shopease.stock.reservation.sweep-interval-ms:5000}")
+    public void releaseExpired() {
+        List<StockReservation> expired;
+        int released = 0;
+        do {
+            expired = reservationRepository.findExpired(Instant.now(), Limit.of(sweepBatchSize));
+            for (StockReservation reservation : expired) {
+                Boolean done = transactionTemplate.execute(status -> releaseLocked(reservation));
+                if (Boolean.TRUE.equals(done)) {
+                    stockChanged(reservation.getProductId(), reservation.getQuantity());
+                    released++;
+                }
+            }
+        } while (expired.size() == sweepBatchSize);
+        if (released > 0) {
+            log.info("{} réservation(s) de stock expirée(s) libérée(s)", released);
+        }
+    }
+
+    /**
+     * Passe la réservation à l'état libéré et rend le stock, dans la transaction courante.
+     *
+     * @return {@code false} si la réservation n'était plus en attente
+     */
+    private boolean releaseLocked(StockReservation reservation) {
+        if (reservationRepository.releaseIfPending(reservation.getId()) == 0) {
+            return false;
+        }
+        productRepository.incrementStock(reservation.getProductId(), reservation.getQuantity());
+        return true;
+    }
+
+    private StockReservation findOwned(Long reservationId, String username) {
+        return reservationRepository.findById(reservationId)
+                .filter(reservation -> reservation.getUsername().equals(username))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Réservation introuvable"));
+    }
+
+    private void stockChanged(Long productId, int delta) {
+        productCache.evict(productId);
+        eventPublisher.publishEvent(new StockChangedEvent(productId, delta));
+    }
+}
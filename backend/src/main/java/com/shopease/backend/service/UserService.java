@@ -1,26 +1,43 @@
 package com.shopease.backend.service;
 
 
+import com.shopease.backend.config.MetricsConfig;
 import com.shopease.backend.entity.User;
+import com.shopease.backend.event.UserChangedEvent;
 import com.shopease.backend.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    /**
+     * Crée ou met à jour un utilisateur, puis invalide son instantané en cache, sous son ancien
+     * nom aussi si celui-ci change.
+     */
     public User saveUser(User user) {
-        return userRepository.save(user);
+        String previousUsername = user.getId() == null ? null : userRepository.findUsernameById(user.getId());
+        User saved = userRepository.save(user);
+        if (previousUsername != null && previousUsername.equals(saved.getUsername())) {
+            previousUsername = null;
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), saved.getUsername(), previousUsername));
+        return saved;
     }
 }
@@ -0,0 +1,113 @@
+package com.shopease.backend.service;
+
+/**
+ * Registre en mémoire des noms d'utilisateur pris, pour vérifier leur disponibilité sans
+ * interroger la base dans le cas courant.
+ * <p>
+ * Les noms sont rangés dans un {@link BloomFilter} chargé en flux depuis la table
+ * {@code users} au démarrage, puis complété à chaque {@link UserChangedEvent}. Une réponse
+ * négative est définitive ; seule une réponse positive (nom pris, ou faux positif) doit être
+ * confirmée par une recherche indexée sur {@code users.username}. Tant que le chargement
+ * n'est pas terminé, toutes les réponses sont positives.
+ * </p>
+ * <p>
+ * Au-delà de {@code shopease.users.username-filter.expected-insertions} noms, le taux de faux
+ * positifs augmente : les réponses restent justes, mais davantage de vérifications atteignent
+ * la base ({@code shopease.users.username-filter.checks}, étiquette {@code result}).
+ * </p>
+ *
+ * @author Fadhel Smari
+ */
+
+import com.shopease.backend.event.UserChangedEvent;
+import com.shopease.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+@Component
+public class UsernameRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameRegistry.class);
+
+    private final UserRepository userRepository;
+    private final BloomFilter filter;
+    private final Counter negativeCounter;
+    private final Counter positiveCounter;
+    private final Counter falsePositiveCounter;
+
+    private volatile boolean loaded;
+
+    /**
+     * @param expectedInsertions le nombre de noms d'utilisateur prévu
+     * @param falsePositiveRate  le taux de faux positifs visé à cette capacité
+     */
+    public UsernameRegistry(UserRepository userRepository, MeterRegistry meterRegistry,
+                            @Value("${shopease.users.username-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${shopease.users.username-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.negativeCounter = checks(meterRegistry, "negative");
+        this.positiveCounter = checks(meterRegistry, "positive");
+        this.falsePositiveCounter = checks(meterRegistry, "false-positive");
+        Gauge.builder("shopease.users.username-filter.insertions", filter, BloomFilter::insertions)
+                .description("Noms d'utilisateur ajoutés au filtre de disponibilité")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charge tous les noms d'utilisateur, lus en flux. Les inscriptions concurrentes sont
+     * ajoutées au même filtre et ne sont donc pas perdues.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.currentTimeMillis();
+        try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+            usernames.forEach(filter::put);
+        }
+        loaded = true;
+        log.info("Filtre des noms d'utilisateur chargé : {} noms, {} Ko en {} ms",
+                filter.insertions(), filter.sizeInBytes() / 1024, System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUsername() != null) {
+            filter.put(event.getUsername());
+        }
+    }
+
+    /**
+     * Indique si un nom d'utilisateur est libre. Un nom absent du filtre l'est sans accès à
+     * la base ; sinon la réponse est confirmée par une recherche indexée.
+     */
+    public boolean isAvailable(String username) {
+        if (loaded && !filter.mightContain(username)) {
+            negativeCounter.increment();
+            return true;
+        }
+        if (userRepository.existsByUsername(username)) {
+            positiveCounter.increment();
+            return false;
+        }
+        falsePositiveCounter.increment();
+        return true;
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("shopease.users.username-filter.checks")
+                .description("Vérifications de disponibilité d'un nom d'utilisateur, par réponse du filtre")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,158 @@
+package com.shopease.backend.controller;
+
+import com.shopease.backend.config.CacheConfig;
+import com.shopease.backend.dto.ProductSummary;
+import com.shopease.backend.entity.Category;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.repository.ProductRepository;
+import com.shopease.backend.service.CategoryService;
+import com.shopease.backend.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie le nombre de requêtes SQL exécutées par les endpoints de liste : une seule requête
+ * de projection par appel, quel que soit le nombre de produits et de catégories renvoyés.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ProductControllerTests {
+
+	private static final int PRODUCT_COUNT = 12;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		if (productRepository.count() > 0) {
+			return;
+		}
+		Category[] categories = new Category[3];
+		for (int i = 0; i < categories.length; i++) {
+			Category category = new Category();
+			category.setName("Catégorie " + i);
+			categories[i] = categoryService.save(category);
+		}
+		for (int i = 0; i < PRODUCT_COUNT; i++) {
+			Product product = new Product();
+			product.setName("Chemise lin " + i);
+			product.setDescription("Chemise en lin lavé");
+			product.setPrice(BigDecimal.valueOf(20 + i));
+			product.setStock(i % 4);
+			product.setCategory(categories[i % categories.length]);
+			productService.saveProduct(product);
+		}
+	}
+
+	@Test
+	void productPageByIdUsesOneStatement() throws Exception {
+		assertStatements(1, get("/api/products").param("size", "5"))
+				.andExpect(jsonPath("$.items.length()").value(5))
+				.andExpect(jsonPath("$.items[0].categoryName").exists())
+				.andExpect(jsonPath("$.next").exists());
+	}
+
+	@Test
+	void productPageByPriceUsesOneStatement() throws Exception {
+		assertStatements(1, get("/api/products").param("sort", "price").param("size", String.valueOf(PRODUCT_COUNT)))
+				.andExpect(jsonPath("$.items.length()").value(PRODUCT_COUNT))
+				.andExpect(jsonPath("$.next").doesNotExist());
+	}
+
+	@Test
+	void searchUsesOneStatement() throws Exception {
+		assertStatements(1, get("/api/products/search").param("q", "chemise"))
+				.andExpect(jsonPath("$.length()").value(PRODUCT_COUNT))
+				.andExpect(jsonPath("$[0].categoryName").exists());
+	}
+
+	@Test
+	void browseUsesOneStatement() throws Exception {
+		assertStatements(1, get("/api/products/browse").param("inStock", "true"))
+				.andExpect(jsonPath("$.total").value(9))
+				.andExpect(jsonPath("$.items[0].categoryName").exists());
+	}
+
+	@Test
+	void categoryListIsServedWithoutStatement() throws Exception {
+		categoryService.getSnapshot();
+		assertStatements(0, get("/api/categories"))
+				.andExpect(jsonPath("$.length()").value(3));
+	}
+
+	@Test
+	void productDetailLoadsCategoryInSameStatement() throws Exception {
+		Long id = productRepository.findPageAfterId(0, Limit.of(1)).get(0).getId();
+		assertStatements(1, get("/api/products/{id}", id))
+				.andExpect(jsonPath("$.category.name").exists());
+	}
+
+	@Test
+	void multiGetLoadsMissesInOneStatementAndKeepsRequestOrder() throws Exception {
+		cacheManager.getCache(CacheConfig.PRODUCTS).clear();
+		List<Long> ids = productRepository.findPageAfterId(0, Limit.of(PRODUCT_COUNT)).stream()
+				.map(ProductSummary::getId).toList().reversed();
+		String param = ids.stream().map(String::valueOf).collect(Collectors.joining(",")) + ",999999";
+
+		assertStatements(1, get("/api/products").param("ids", param))
+				.andExpect(jsonPath("$.length()").value(PRODUCT_COUNT + 1))
+				.andExpect(jsonPath("$[0].id").value(ids.get(0)))
+				.andExpect(jsonPath("$[0].product.category.name").exists())
+				.andExpect(jsonPath("$[" + PRODUCT_COUNT + "].status").value("NOT_FOUND"));
+		// Tous les produits existants sont désormais en cache : seul l'identifiant inconnu est relu
+		assertStatements(1, get("/api/products").param("ids", param))
+				.andExpect(jsonPath("$[0].status").value("FOUND"));
+		assertStatements(0, get("/api/products").param("ids", String.valueOf(ids.get(1))))
+				.andExpect(jsonPath("$[0].id").value(ids.get(1)));
+	}
+
+	private ResultActions assertStatements(long expected, RequestBuilder request) throws Exception {
+		statistics.clear();
+		ResultActions result = mockMvc.perform(request).andExpect(status().isOk());
+		assertThat(statistics.getPrepareStatementCount())
+				.as("requêtes SQL exécutées")
+				.isEqualTo(expected);
+		return result;
+	}
+}
@@ -0,0 +1,202 @@
+package com.shopease.backend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Générateur de charge en modèle ouvert : les requêtes partent à un débit fixe, qu'elles
+ * aient reçu leur réponse ou non, comme des clients indépendants. La latence est mesurée
+ * depuis l'instant d'envoi prévu et non depuis l'envoi effectif : un serveur qui ralentit
+ * ne ralentit pas la charge, et ses retards apparaissent entièrement dans les percentiles.
+ * <p>
+ * Les requêtes sont réparties entre les scénarios selon leur poids, dans un ordre fixe.
+ * Chaque scénario a son histogramme HdrHistogram (en microsecondes).
+ * </p>
+ */
+final class OpenLoadGenerator {
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	/**
+	 * Délai au-delà duquel une requête sans réponse est comptée comme erreur de transport.
+	 */
+	private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	private final List<Scenario> scenarios = new ArrayList<>();
+
+	/**
+	 * Ajoute un scénario.
+	 *
+	 * @param name     le nom du scénario, repris dans le rapport et le nom du fichier d'histogramme
+	 * @param weight   la part relative des requêtes de ce scénario
+	 * @param requests construit la n-ième requête du scénario
+	 */
+	OpenLoadGenerator scenario(String name, int weight, LongFunction<HttpRequest> requests) {
+		scenarios.add(new Scenario(name, weight, requests));
+		return this;
+	}
+
+	/**
+	 * Envoie la charge pendant la durée donnée, puis attend les réponses encore attendues.
+	 * Les réponses aux requêtes prévues pendant le préchauffage ne sont pas enregistrées.
+	 *
+	 * @param ratePerSecond le nombre de requêtes envoyées par seconde, tous scénarios confondus
+	 * @param warmup        la durée de préchauffage
+	 * @param duration      la durée de la mesure
+	 */
+	void run(int ratePerSecond, Duration warmup, Duration duration) {
+		List<Scenario> schedule = interleave(scenarios);
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+		long total = (warmup.toSeconds() + duration.toSeconds()) * ratePerSecond;
+		long start = System.nanoTime();
+		long measureFrom = start + warmup.toNanos();
+		List<CompletableFuture<?>> inFlight = new ArrayList<>((int) total);
+
+		for (long i = 0; i < total; i++) {
+			long intended = start + i * intervalNanos;
+			long wait = intended - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			Scenario scenario = schedule.get((int) (i % schedule.size()));
+			boolean measured = intended >= measureFrom;
+			HttpRequest request = scenario.requests.apply(scenario.sequence.incrementAndGet());
+			inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+					.orTimeout(RESPONSE_TIMEOUT.toSeconds(), TimeUnit.SECONDS)
+					.whenComplete((response, error) -> {
+						if (measured) {
+							scenario.record(intended, response, error);
+						}
+					}));
+		}
+		// Chaque requête se termine, au plus tard en erreur après RESPONSE_TIMEOUT
+		CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+	}
+
+	/**
+	 * Écrit le rapport : une ligne de percentiles par scénario sur la sortie donnée, et la
+	 * distribution complète de chaque histogramme dans {@code <directory>/<scénario>.hgrm}.
+	 */
+	void report(PrintStream out, Path directory, Duration duration) throws IOException {
+		Files.createDirectories(directory);
+		Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+		out.printf("%-12s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+				"scénario", "requêtes", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "statuts");
+		for (Scenario scenario : scenarios) {
+			all.add(scenario.latencies);
+			printLine(out, scenario.name, scenario.latencies, duration, scenario.statuses());
+			try (PrintStream file = new PrintStream(Files.newOutputStream(directory.resolve(scenario.name + ".hgrm")))) {
+				scenario.latencies.outputPercentileDistribution(file, 1000.0);
+			}
+		}
+		printLine(out, "total", all, duration, Map.of());
+		try (PrintStream file = new PrintStream(Files.newOutputStream(directory.resolve("total.hgrm")))) {
+			all.outputPercentileDistribution(file, 1000.0);
+		}
+	}
+
+	List<Scenario> scenarios() {
+		return scenarios;
+	}
+
+	private static void printLine(PrintStream out, String name, Histogram histogram, Duration duration,
+								  Map<String, Long> statuses) {
+		out.printf("%-12s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n", name,
+				histogram.getTotalCount(),
+				histogram.getTotalCount() / (double) duration.toSeconds(),
+				histogram.getValueAtPercentile(50) / 1000.0,
+				histogram.getValueAtPercentile(95) / 1000.0,
+				histogram.getValueAtPercentile(99) / 1000.0,
+				histogram.getValueAtPercentile(99.9) / 1000.0,
+				histogram.getMaxValue() / 1000.0,
+				statuses.isEmpty() ? "" : statuses);
+	}
+
+	/**
+	 * Construit un cycle de créneaux où chaque scénario apparaît selon son poids, réparti
+	 * régulièrement (poids 2 et 1 donnent A B A plutôt que A A B).
+	 */
+	private static List<Scenario> interleave(List<Scenario> scenarios) {
+		int totalWeight = scenarios.stream().mapToInt(scenario -> scenario.weight).sum();
+		List<Scenario> cycle = new ArrayList<>(totalWeight);
+		Map<Scenario, Integer> emitted = new HashMap<>();
+		for (int slot = 1; slot <= totalWeight; slot++) {
+			Scenario behind = null;
+			double largestLag = Double.NEGATIVE_INFINITY;
+			for (Scenario scenario : scenarios) {
+				double lag = slot * scenario.weight / (double) totalWeight - emitted.getOrDefault(scenario, 0);
+				if (lag > largestLag) {
+					largestLag = lag;
+					behind = scenario;
+				}
+			}
+			emitted.merge(behind, 1, Integer::sum);
+			cycle.add(behind);
+		}
+		return cycle;
+	}
+
+	/**
+	 * Un scénario de charge et ses mesures.
+	 */
+	static final class Scenario {
+		private final String name;
+		private final int weight;
+		private final LongFunction<HttpRequest> requests;
+		private final AtomicLong sequence = new AtomicLong();
+		private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+		private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+		private Scenario(String name, int weight, LongFunction<HttpRequest> requests) {
+			this.name = name;
+			this.weight = weight;
+			this.requests = requests;
+		}
+
+		String name() {
+			return name;
+		}
+
+		/**
+		 * Nombre de réponses par statut HTTP ; {@code "erreur"} compte les échecs de transport.
+		 */
+		Map<String, Long> statuses() {
+			Map<String, Long> counts = new TreeMap<>();
+			statuses.forEach((status, count) -> counts.put(status, count.sum()));
+			return counts;
+		}
+
+		private void record(long intendedNanos, HttpResponse<?> response, Throwable error) {
+			long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+			latencies.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+			String status = error != null ? "erreur" : String.valueOf(response.statusCode());
+			statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.shopease.backend.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopease.backend.entity.Category;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.service.CategoryService;
+import com.shopease.backend.service.ProductService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test de charge de l'application complète, démarrée sur un port aléatoire avec une base H2
+ * en mémoire : navigation dans le catalogue, détail et mise à jour de produits, connexion
+ * et inscription, envoyés à débit fixe par {@link OpenLoadGenerator}.
+ * <p>
+ * Exclu de {@code mvn test} ; lancement : {@code mvn -Ploadtest test}, avec les options
+ * {@code -Dloadtest.rate} (requêtes par seconde), {@code -Dloadtest.duration-seconds} et
+ * {@code -Dloadtest.warmup-seconds}. Le rapport est affiché et les histogrammes sont écrits
+ * dans {@code target/loadtest}.
+ * </p>
+ * <p>
+ * {@link #catalogueAndLoginLoad} ne charge que le catalogue et la connexion : lancé une fois
+ * sans profil, une fois avec {@code -Dspring.profiles.active=virtual}, il compare les threads
+ * de plateforme de Tomcat aux threads virtuels.
+ * </p>
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:shopease_load;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.generate_statistics=false",
+		// Toute la charge vient d'une seule adresse : le limiteur de débit refuserait l'essentiel des connexions
+		"shopease.auth.rate-limit.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShopEaseLoadTest {
+
+	private static final int CATEGORY_COUNT = 10;
+	private static final int PRODUCT_COUNT = 1000;
+	private static final String PASSWORD = "charge-motdepasse";
+	private static final String[] SEARCH_TERMS = {"chemise", "pantalon", "veste", "coton", "lin"};
+
+	/**
+	 * Statuts acceptés en plus des succès : 503 lorsque le pool de hachage BCrypt est saturé.
+	 */
+	private static final Set<String> ACCEPTED_REJECTIONS = Set.of("503");
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Environment environment;
+
+	private List<Long> productIds;
+	private List<Long> categoryIds;
+	private String token;
+
+	@BeforeAll
+	void setUp() throws Exception {
+		categoryIds = new ArrayList<>();
+		for (int i = 0; i < CATEGORY_COUNT; i++) {
+			Category category = new Category();
+			category.setName("Catégorie " + i);
+			categoryIds.add(categoryService.save(category).getId());
+		}
+		productIds = new ArrayList<>();
+		for (int i = 0; i < PRODUCT_COUNT; i++) {
+			productIds.add(productService.saveProduct(product(i, categoryIds.get(i % CATEGORY_COUNT))).getId());
+		}
+
+		HttpResponse<String> registered = HttpClient.newHttpClient().send(
+				post("/api/auth/register", registration("charge")), HttpResponse.BodyHandlers.ofString());
+		assertThat(registered.statusCode()).isEqualTo(200);
+		token = objectMapper.readTree(registered.body()).get("token").asText();
+	}
+
+	@Test
+	void mixedCatalogAndAuthenticationLoad() throws Exception {
+		int rate = Integer.getInteger("loadtest.rate", 100);
+		Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+		Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+		long runId = System.currentTimeMillis();
+
+		OpenLoadGenerator generator = new OpenLoadGenerator()
+				.scenario("catalogue", 20, n -> get("/api/products?size=20"))
+				.scenario("navigation", 20, n -> get("/api/products/browse?inStock=true&sort=price_asc&categoryId="
+						+ categoryIds.get((int) (n % CATEGORY_COUNT))))
+				.scenario("recherche", 10, n -> get("/api/products/search?q=" + SEARCH_TERMS[(int) (n % SEARCH_TERMS.length)]))
+				.scenario("categories", 10, n -> get("/api/categories"))
+				.scenario("detail", 30, n -> get("/api/products/" + productId(n)))
+				.scenario("maj-produit", 5, n -> put("/api/products/" + productId(n),
+						product((int) n, categoryIds.get((int) (n % CATEGORY_COUNT)))))
+				.scenario("connexion", 3, n -> post("/api/auth/login", Map.of("username", "charge", "password", PASSWORD)))
+				.scenario("inscription", 2, n -> post("/api/auth/register", registration("charge-" + runId + "-" + n)));
+
+		generator.run(rate, warmup, duration);
+		System.out.printf("%nCharge ouverte : %d req/s pendant %d s (préchauffage %d s)%n",
+				rate, duration.toSeconds(), warmup.toSeconds());
+		generator.report(System.out, Path.of("target", "loadtest"), duration);
+
+		for (OpenLoadGenerator.Scenario scenario : generator.scenarios()) {
+			assertThat(scenario.statuses().keySet())
+					.as("statuts du scénario %s", scenario.name())
+					.allMatch(status -> status.startsWith("2") || ACCEPTED_REJECTIONS.contains(status));
+		}
+	}
+
+	@Test
+	void catalogueAndLoginLoad() throws Exception {
+		int rate = Integer.getInteger("loadtest.rate", 100);
+		Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+		Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+
+		OpenLoadGenerator generator = new OpenLoadGenerator()
+				.scenario("catalogue", 90, n -> get("/api/products?size=20"))
+				.scenario("connexion", 10, n -> post("/api/auth/login", Map.of("username", "charge", "password", PASSWORD)));
+
+		generator.run(rate, warmup, duration);
+		System.out.printf("%nCatalogue et connexion, threads %s : %d req/s pendant %d s (préchauffage %d s)%n",
+				environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false) ? "virtuels" : "de plateforme",
+				rate, duration.toSeconds(), warmup.toSeconds());
+		generator.report(System.out, Path.of("target", "loadtest", "threads"), duration);
+
+		for (OpenLoadGenerator.Scenario scenario : generator.scenarios()) {
+			assertThat(scenario.statuses().keySet())
+					.as("statuts du scénario %s", scenario.name())
+					.allMatch(status -> status.startsWith("2") || ACCEPTED_REJECTIONS.contains(status));
+		}
+	}
+
+	private long productId(long n) {
+		// Accès concentrés sur une partie du catalogue, comme les produits les plus consultés
+		int hot = PRODUCT_COUNT / 10;
+		return productIds.get((int) (n % 5 == 0 ? n % PRODUCT_COUNT : n % hot));
+	}
+
+	private Product product(int i, Long categoryId) {
+		Category category = new Category();
+		category.setId(categoryId);
+		Product product = new Product();
+		product.setName(SEARCH_TERMS[i % SEARCH_TERMS.length] + " modèle " + i);
+		product.setDescription("Article " + i + " en " + SEARCH_TERMS[(i + 3) % SEARCH_TERMS.length]);
+		product.setPrice(BigDecimal.valueOf(1000 + i % 9000, 2));
+		product.setStock(i % 7);
+		product.setCategory(category);
+		return product;
+	}
+
+	private Map<String, String> registration(String username) {
+		return Map.of("firstname", "Client", "lastname", "Charge", "username", username,
+				"email", username + "@example.com", "password", PASSWORD);
+	}
+
+	private HttpRequest get(String path) {
+		return request(path).GET().build();
+	}
+
+	private HttpRequest post(String path, Object body) {
+		return request(path).header("Content-Type", "application/json").POST(json(body)).build();
+	}
+
+	private HttpRequest put(String path, Object body) {
+		return request(path).header("Content-Type", "application/json").PUT(json(body)).build();
+	}
+
+	private HttpRequest.Builder request(String path) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+		return token != null ? builder.header("Authorization", "Bearer " + token) : builder;
+	}
+
+	private HttpRequest.BodyPublisher json(Object body) {
+		try {
+			return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.shopease.backend.security;
+
+import com.shopease.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie le seau GCRA du limiteur d'authentification : rafale, refus, jeton rendu et limite
+ * distincte des vérifications de disponibilité.
+ */
+class AuthRateLimiterTests {
+
+	@Test
+	void burstIsAllowedThenRejectedWithRetryAfter() {
+		AuthRateLimiter limiter = limiter(3, 100);
+
+		for (int i = 0; i < 3; i++) {
+			limiter.check("login", "10.0.0.1", "user" + i);
+		}
+		assertThatThrownBy(() -> limiter.check("login", "10.0.0.1", "user3"))
+				.isInstanceOfSatisfying(TooManyRequestsException.class,
+						e -> assertThat(e.getRetryAfterSeconds()).isPositive());
+		limiter.check("login", "10.0.0.2", "user3");
+	}
+
+	@Test
+	void usernameRejectionDoesNotCostTheAddress() {
+		AuthRateLimiter limiter = limiter(3, 1);
+
+		limiter.check("login", "10.0.0.1", "alice");
+		for (int i = 0; i < 5; i++) {
+			assertThatThrownBy(() -> limiter.check("login", "10.0.0.1", "Alice "))
+					.isInstanceOf(TooManyRequestsException.class);
+		}
+		limiter.check("login", "10.0.0.1", "bob");
+		limiter.check("login", "10.0.0.1", "carol");
+		assertThatThrownBy(() -> limiter.check("login", "10.0.0.1", "dave"))
+				.isInstanceOf(TooManyRequestsException.class);
+	}
+
+	@Test
+	void concurrentRequestsNeverExceedTheBurst() throws Exception {
+		int burst = 20;
+		AuthRateLimiter limiter = limiter(burst, 1000);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int thread = t;
+				results.add(executor.submit(() -> {
+					start.await();
+					int accepted = 0;
+					for (int i = 0; i < 50; i++) {
+						try {
+							limiter.check("register", "10.0.0.1", "user-" + thread + "-" + i);
+							accepted++;
+						} catch (TooManyRequestsException e) {
+							// Attendu au-delà de la rafale
+						}
+					}
+					return accepted;
+				}));
+			}
+			start.countDown();
+			int accepted = 0;
+			for (Future<Integer> result : results) {
+				accepted += result.get();
+			}
+			// Une minute à 1 requête/min ne peut pas s'écouler pendant le test : exactement la rafale passe
+			assertThat(accepted).isEqualTo(burst);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void lookupsHaveTheirOwnLimit() {
+		AuthRateLimiter limiter = new AuthRateLimiter(new SimpleMeterRegistry(), true, 1, 1, 1, 1, 1, 2, 1000);
+
+		limiter.checkLookup("username-available", "10.0.0.1");
+		limiter.checkLookup("username-available", "10.0.0.1");
+		assertThatThrownBy(() -> limiter.checkLookup("username-available", "10.0.0.1"))
+				.isInstanceOf(TooManyRequestsException.class);
+		limiter.check("login", "10.0.0.1", "alice");
+	}
+
+	private static AuthRateLimiter limiter(int addressBurst, int usernameBurst) {
+		return new AuthRateLimiter(new SimpleMeterRegistry(), true, 1, addressBurst, 1, usernameBurst, 1, 1, 1000);
+	}
+}
@@ -0,0 +1,78 @@
+package com.shopease.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le filtre de Bloom des noms d'utilisateur : aucun faux négatif, taux de faux positifs
+ * proche de la cible à la capacité prévue, et aucun bit perdu lors d'ajouts concurrents.
+ */
+class BloomFilterTests {
+
+	private static final int CAPACITY = 100_000;
+	private static final double TARGET_RATE = 0.01;
+
+	@Test
+	void falsePositiveRateStaysNearTargetAtCapacity() {
+		BloomFilter filter = new BloomFilter(CAPACITY, TARGET_RATE);
+		for (int i = 0; i < CAPACITY; i++) {
+			filter.put("user-" + i);
+		}
+		for (int i = 0; i < CAPACITY; i++) {
+			assertThat(filter.mightContain("user-" + i)).isTrue();
+		}
+
+		int probes = 200_000;
+		int falsePositives = 0;
+		for (int i = 0; i < probes; i++) {
+			if (filter.mightContain("absent-" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat((double) falsePositives / probes).isLessThan(TARGET_RATE * 1.5);
+		assertThat(filter.insertions()).isEqualTo(CAPACITY);
+	}
+
+	@Test
+	void concurrentInsertionsAreAllVisible() throws Exception {
+		BloomFilter filter = new BloomFilter(CAPACITY, TARGET_RATE);
+		int threads = 8;
+		int perThread = CAPACITY / threads;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int thread = t;
+				results.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < perThread; i++) {
+						filter.put("user-" + thread + "-" + i);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (int t = 0; t < threads; t++) {
+			for (int i = 0; i < perThread; i++) {
+				assertThat(filter.mightContain("user-" + t + "-" + i)).isTrue();
+			}
+		}
+		assertThat(filter.insertions()).isEqualTo((long) threads * perThread);
+	}
+}
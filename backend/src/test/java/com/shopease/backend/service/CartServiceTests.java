@@ -0,0 +1,136 @@
+package com.shopease.backend.service;
+
+import com.shopease.backend.dto.CartView;
+import com.shopease.backend.dto.ProductLookup;
+import com.shopease.backend.entity.Cart;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.repository.CartRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie les paniers en mémoire : bornes de quantité, modifications concurrentes d'un même
+ * panier et écriture différée des seules versions non encore persistées.
+ */
+class CartServiceTests {
+
+	private final CartRepository cartRepository = mock(CartRepository.class);
+	private final ProductService productService = mock(ProductService.class);
+	private final EntityManager entityManager = mock(EntityManager.class);
+	private CartService cartService;
+
+	@BeforeEach
+	void setUp() {
+		cartService = new CartService(cartRepository, productService, mock(PlatformTransactionManager.class),
+				1000, 30, 100, 999);
+		ReflectionTestUtils.setField(cartService, "entityManager", entityManager);
+		when(cartRepository.findById(any())).thenReturn(Optional.empty());
+		when(productService.getProductById(anyLong())).thenAnswer(call -> Optional.of(product(call.getArgument(0))));
+		when(productService.getProductsByIds(anyList())).thenAnswer(call -> {
+			List<Long> ids = call.getArgument(0);
+			return ids.stream().map(id -> ProductLookup.found(product(id))).toList();
+		});
+	}
+
+	@Test
+	void quantityOverflowIsRejected() {
+		cartService.addItem("alice", 1L, 1);
+
+		assertThatThrownBy(() -> cartService.addItem("alice", 1L, Integer.MAX_VALUE))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+		assertThat(cartService.getCart("alice").getItems()).singleElement()
+				.extracting(CartView.Line::getQuantity).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentAdditionsToOneCartAreAllKept() throws Exception {
+		int threads = 8;
+		int additions = 50;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				long productId = 1 + t % 2;
+				results.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < additions; i++) {
+						cartService.addItem("alice", productId, 1);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(cartService.getCart("alice").getItems())
+				.extracting(CartView.Line::getQuantity)
+				.containsExactly(threads / 2 * additions, threads / 2 * additions);
+		// Un seul chargement malgré les appels concurrents
+		verify(cartRepository, times(1)).findById("alice");
+	}
+
+	@Test
+	void onlyUnpersistedVersionsAreWritten() {
+		cartService.addItem("alice", 7L, 2);
+		cartService.flushDirtyCarts();
+
+		ArgumentCaptor<Cart> persisted = ArgumentCaptor.forClass(Cart.class);
+		verify(entityManager).persist(persisted.capture());
+		ByteBuffer items = ByteBuffer.wrap(persisted.getValue().getItems());
+		assertThat(items.getLong()).isEqualTo(7L);
+		assertThat(items.getInt()).isEqualTo(2);
+
+		// Rien à écrire tant que le panier n'a pas changé
+		cartService.flushDirtyCarts();
+		verify(cartRepository, times(1)).findAllById(any());
+
+		// Un panier vidé supprime la ligne existante
+		when(cartRepository.findAllById(any())).thenReturn(List.of(persisted.getValue()));
+		cartService.clear("alice");
+		cartService.flushDirtyCarts();
+		verify(entityManager).remove(persisted.getValue());
+		verify(entityManager, never()).merge(any());
+	}
+
+	private static Product product(Long id) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName("Produit " + id);
+		product.setPrice(BigDecimal.TEN);
+		return product;
+	}
+}
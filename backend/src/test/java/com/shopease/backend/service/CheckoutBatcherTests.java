@@ -0,0 +1,139 @@
+package com.shopease.backend.service;
+
+import com.shopease.backend.dto.CheckoutRequest;
+import com.shopease.backend.entity.Category;
+import com.shopease.backend.entity.Order;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.entity.StockReservation;
+import com.shopease.backend.entity.User;
+import com.shopease.backend.enums.ReservationStatus;
+import com.shopease.backend.enums.Role;
+import com.shopease.backend.exception.InsufficientStockException;
+import com.shopease.backend.repository.ProductRepository;
+import com.shopease.backend.repository.StockReservationRepository;
+import com.shopease.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie le pipeline de commande par micro-lots : aucune survente quand de nombreuses commandes
+ * partagent un lot, et une réservation en attente consommée sans second retrait de stock.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:shopease_checkout;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+class CheckoutBatcherTests {
+
+	@Autowired
+	private CheckoutBatcher checkoutBatcher;
+
+	@Autowired
+	private StockService stockService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private StockReservationRepository reservationRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void concurrentCheckoutsNeverOversell() {
+		Long productId = product(10);
+		List<CompletableFuture<Order>> futures = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			futures.add(checkoutBatcher.submit(user("acheteur-" + i), List.of(item(productId, 1))));
+		}
+
+		int confirmed = 0;
+		int refused = 0;
+		for (CompletableFuture<Order> future : futures) {
+			try {
+				Order order = future.orTimeout(30, TimeUnit.SECONDS).join();
+				assertThat(order.getTotal()).isEqualByComparingTo(BigDecimal.TEN);
+				confirmed++;
+			} catch (CompletionException e) {
+				assertThat(e.getCause()).isInstanceOf(InsufficientStockException.class);
+				refused++;
+			}
+		}
+		assertThat(confirmed).isEqualTo(10);
+		assertThat(refused).isEqualTo(20);
+		assertThat(stock(productId)).isZero();
+	}
+
+	@Test
+	void pendingReservationIsConsumedWithoutTakingStockTwice() {
+		Long productId = product(5);
+		String username = user("reserveur");
+		StockReservation reservation = stockService.reserve(productId, 3, username);
+		assertThat(stock(productId)).isEqualTo(2);
+
+		Order order = checkoutBatcher.submit(username, List.of(item(productId, 4))).join();
+
+		assertThat(order.getLines()).singleElement().satisfies(line -> assertThat(line.getQuantity()).isEqualTo(4));
+		// 3 unités viennent de la réservation, une seule du stock
+		assertThat(stock(productId)).isEqualTo(1);
+		assertThat(reservationRepository.findById(reservation.getId()).orElseThrow().getStatus())
+				.isEqualTo(ReservationStatus.COMMITTED);
+	}
+
+	@Test
+	void refusedOrderLeavesStockUntouched() {
+		Long productId = product(2);
+
+		assertThatThrownBy(() -> checkoutBatcher.submit(user("gourmand"), List.of(item(productId, 3))).join())
+				.hasCauseInstanceOf(InsufficientStockException.class);
+		assertThat(stock(productId)).isEqualTo(2);
+	}
+
+	private Long product(int stock) {
+		Category category = new Category();
+		category.setName("Catégorie " + System.nanoTime());
+		Product product = new Product();
+		product.setName("Bougie");
+		product.setPrice(BigDecimal.TEN);
+		product.setStock(stock);
+		product.setCategory(categoryService.save(category));
+		return productService.saveProduct(product).getId();
+	}
+
+	private String user(String username) {
+		User user = new User();
+		user.setFirstname("Client");
+		user.setLastname("Test");
+		user.setUsername(username);
+		user.setEmail(username + "@example.com");
+		user.setPassword("hash");
+		user.setRole(Role.CLIENT);
+		return userRepository.save(user).getUsername();
+	}
+
+	private int stock(Long productId) {
+		return productRepository.findById(productId).orElseThrow().getStock();
+	}
+
+	private static CheckoutRequest.Item item(Long productId, int quantity) {
+		CheckoutRequest.Item item = new CheckoutRequest.Item();
+		item.setProductId(productId);
+		item.setQuantity(quantity);
+		return item;
+	}
+}
@@ -0,0 +1,90 @@
+package com.shopease.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la table de hachage des quantités du panier, en particulier la suppression par
+ * décalage arrière lorsque la séquence de sondage repasse par le début du tableau.
+ */
+class LongIntHashMapTests {
+
+	// Capacité obtenue pour 8 éléments attendus : 16 cases, index sur les 4 bits de poids fort
+	private static final int CAPACITY = 16;
+
+	@Test
+	void removalShiftsEntriesBackAcrossTheWrapAround() {
+		LongIntHashMap map = new LongIntHashMap(8);
+		// Trois clés dont la case idéale est la dernière : elles occupent 15, 0 et 1
+		List<Long> lastSlot = keysWithIdealSlot(CAPACITY - 1, 3);
+		// Une clé dont la case idéale est 0, repoussée en 2
+		long firstSlot = keysWithIdealSlot(0, 1).get(0);
+		for (int i = 0; i < lastSlot.size(); i++) {
+			map.put(lastSlot.get(i), i + 1);
+		}
+		map.put(firstSlot, 10);
+
+		map.remove(lastSlot.get(0));
+
+		assertThat(map.size()).isEqualTo(3);
+		assertThat(map.get(lastSlot.get(0))).isZero();
+		assertThat(map.get(lastSlot.get(1))).isEqualTo(2);
+		assertThat(map.get(lastSlot.get(2))).isEqualTo(3);
+		assertThat(map.get(firstSlot)).isEqualTo(10);
+
+		map.remove(lastSlot.get(1));
+		map.remove(lastSlot.get(2));
+		assertThat(map.get(firstSlot)).isEqualTo(10);
+		assertThat(map.size()).isEqualTo(1);
+	}
+
+	@Test
+	void behavesLikeAHashMapUnderRandomOperations() {
+		LongIntHashMap map = new LongIntHashMap(4);
+		Map<Long, Integer> expected = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			// Peu de clés distinctes : les suppressions et les collisions sont fréquentes
+			long key = 1 + random.nextInt(64);
+			int value = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(999);
+			map.put(key, value);
+			if (value == 0) {
+				expected.remove(key);
+			} else {
+				expected.put(key, value);
+			}
+			if (i % 1000 == 0) {
+				assertSameContent(map, expected);
+			}
+		}
+		assertSameContent(map, expected);
+	}
+
+	private static void assertSameContent(LongIntHashMap map, Map<Long, Integer> expected) {
+		assertThat(map.size()).isEqualTo(expected.size());
+		Map<Long, Integer> actual = new HashMap<>();
+		map.forEach(actual::put);
+		assertThat(actual).isEqualTo(expected);
+		for (long key = 1; key <= 64; key++) {
+			assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+		}
+	}
+
+	private static List<Long> keysWithIdealSlot(int slot, int count) {
+		int shift = 64 - Integer.numberOfTrailingZeros(CAPACITY);
+		List<Long> keys = new ArrayList<>();
+		for (long key = 1; keys.size() < count; key++) {
+			if ((int) ((key * 0x9E3779B97F4A7C15L) >>> shift) == slot) {
+				keys.add(key);
+			}
+		}
+		return keys;
+	}
+}
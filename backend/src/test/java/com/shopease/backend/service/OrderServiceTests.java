@@ -0,0 +1,72 @@
+package com.shopease.backend.service;
+
+import com.shopease.backend.dto.CheckoutRequest;
+import com.shopease.backend.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Vérifie le contrôle des quantités avant la remise d'une commande au pipeline de validation.
+ */
+class OrderServiceTests {
+
+	private final CheckoutBatcher checkoutBatcher = mock(CheckoutBatcher.class);
+
+	private final OrderService orderService = new OrderService(mock(OrderRepository.class), checkoutBatcher, 100, 999);
+
+	@Test
+	void duplicateLinesThatOverflowAreRejected() {
+		CheckoutRequest request = request(item(1L, Integer.MAX_VALUE), item(1L, Integer.MAX_VALUE));
+
+		assertThatThrownBy(() -> orderService.placeOrder("alice", request))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+		verifyNoInteractions(checkoutBatcher);
+	}
+
+	@Test
+	void duplicateLinesAboveTheCartLimitAreRejected() {
+		CheckoutRequest request = request(item(1L, 500), item(2L, 1), item(1L, 500));
+
+		assertThatThrownBy(() -> orderService.placeOrder("alice", request))
+				.isInstanceOf(ResponseStatusException.class);
+		verifyNoInteractions(checkoutBatcher);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void duplicateLinesAreMergedPerProduct() {
+		orderService.placeOrder("alice", request(item(1L, 2), item(2L, 1), item(1L, 3)));
+
+		ArgumentCaptor<List<CheckoutRequest.Item>> items = ArgumentCaptor.forClass(List.class);
+		verify(checkoutBatcher).submit(eq("alice"), items.capture());
+		assertThat(items.getValue())
+				.extracting(CheckoutRequest.Item::getProductId, CheckoutRequest.Item::getQuantity)
+				.containsExactly(tuple(1L, 5), tuple(2L, 1));
+	}
+
+	private static CheckoutRequest request(CheckoutRequest.Item... items) {
+		CheckoutRequest request = new CheckoutRequest();
+		request.setItems(List.of(items));
+		return request;
+	}
+
+	private static CheckoutRequest.Item item(Long productId, int quantity) {
+		CheckoutRequest.Item item = new CheckoutRequest.Item();
+		item.setProductId(productId);
+		item.setQuantity(quantity);
+		return item;
+	}
+}
@@ -0,0 +1,150 @@
+package com.shopease.backend.service;
+
+import com.shopease.backend.entity.Category;
+import com.shopease.backend.entity.Product;
+import com.shopease.backend.entity.StockReservation;
+import com.shopease.backend.enums.ReservationStatus;
+import com.shopease.backend.exception.InsufficientStockException;
+import com.shopease.backend.repository.ProductRepository;
+import com.shopease.backend.repository.StockReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie les réservations de stock sous concurrence : aucune survente, et une réservation
+ * libérée une seule fois lorsque le client et le balayage des expirations se la disputent.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:shopease_stock;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+class StockServiceTests {
+
+	@Autowired
+	private StockService stockService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private StockReservationRepository reservationRepository;
+
+	@Test
+	void concurrentReservationsNeverOversell() throws Exception {
+		Long productId = product(10);
+
+		List<Boolean> outcomes = concurrently(16, thread -> () -> {
+			List<Boolean> reserved = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				try {
+					stockService.reserve(productId, 1, "client-" + thread);
+					reserved.add(true);
+				} catch (InsufficientStockException e) {
+					reserved.add(false);
+				}
+			}
+			return reserved;
+		});
+
+		assertThat(outcomes).filteredOn(Boolean::booleanValue).hasSize(10);
+		assertThat(stock(productId)).isZero();
+	}
+
+	@Test
+	void expiredReservationIsReleasedOnceDespiteConcurrentRelease() throws Exception {
+		Long productId = product(5);
+		StockReservation reservation = stockService.reserve(productId, 3, "alice");
+		reservation.setExpiresAt(Instant.now().minusSeconds(1));
+		reservationRepository.save(reservation);
+
+		concurrently(4, thread -> () -> {
+			if (thread % 2 == 0) {
+				stockService.release(reservation.getId(), "alice");
+			} else {
+				stockService.releaseExpired();
+			}
+			return List.of(true);
+		});
+
+		assertThat(stock(productId)).isEqualTo(5);
+		assertThat(reservationRepository.findById(reservation.getId()).orElseThrow().getStatus())
+				.isEqualTo(ReservationStatus.RELEASED);
+	}
+
+	@Test
+	void releasedReservationCannotBeCommitted() {
+		Long productId = product(2);
+		StockReservation reservation = stockService.reserve(productId, 2, "alice");
+		stockService.release(reservation.getId(), "alice");
+
+		assertThatThrownBy(() -> stockService.commit(reservation.getId(), "alice"))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+		assertThat(stock(productId)).isEqualTo(2);
+	}
+
+	private Long product(int stock) {
+		Category category = new Category();
+		category.setName("Catégorie " + System.nanoTime());
+		Product product = new Product();
+		product.setName("Lampe");
+		product.setPrice(BigDecimal.TEN);
+		product.setStock(stock);
+		product.setCategory(categoryService.save(category));
+		return productService.saveProduct(product).getId();
+	}
+
+	private int stock(Long productId) {
+		return productRepository.findById(productId).orElseThrow().getStock();
+	}
+
+	/**
+	 * Lance les tâches ensemble et concatène leurs résultats.
+	 */
+	private static <T> List<T> concurrently(int threads, ThreadTask<T> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<List<T>>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				Callable<List<T>> callable = task.create(t);
+				results.add(executor.submit(() -> {
+					start.await();
+					return callable.call();
+				}));
+			}
+			start.countDown();
+			List<T> all = new ArrayList<>();
+			for (Future<List<T>> result : results) {
+				all.addAll(result.get());
+			}
+			return all;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@FunctionalInterface
+	private interface ThreadTask<T> {
+		Callable<List<T>> create(int thread);
+	}
+}